@@ -0,0 +1,77 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.wisecoders.dbschema.cassandra.types.ArrayResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and reads an ArrayResultSet of the size returned by the metadata calls on large schemas.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArrayResultSetBenchmark {
+
+    private static final String[] COLUMNS = {"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "TYPE_NAME"};
+
+    @Param({"100000"})
+    public int rowCount;
+
+    private List<Object[]> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Object[]{"bench", null, "table_" + i / 28, "column_" + i % 28, "int"});
+        }
+    }
+
+    @Benchmark
+    public ArrayResultSet addRow() {
+        final ArrayResultSet resultSet = new ArrayResultSet(COLUMNS);
+        for (Object[] row : rows) {
+            resultSet.addRow(row);
+        }
+        return resultSet;
+    }
+
+    @Benchmark
+    public ArrayResultSet addRows() {
+        final ArrayResultSet resultSet = new ArrayResultSet(COLUMNS);
+        resultSet.addRows(rows);
+        return resultSet;
+    }
+
+    @Benchmark
+    public void addRowsAndRead(Blackhole blackhole) throws SQLException {
+        final ArrayResultSet resultSet = new ArrayResultSet(COLUMNS);
+        resultSet.addRows(rows);
+        while (resultSet.next()) {
+            blackhole.consume(resultSet.getString("TABLE_NAME"));
+            blackhole.consume(resultSet.getString("COLUMN_NAME"));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts timestamps, dates and times between UTC and the time zone of a Calendar, as done by the getters and setters taking a Calendar.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateUtilBenchmark {
+
+    @Param({"Europe/Berlin", "UTC"})
+    public String timeZone;
+
+    private Calendar calendar;
+    private Timestamp timestamp;
+    private java.sql.Date date;
+    private Time time;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calendar = Calendar.getInstance(TimeZone.getTimeZone(timeZone));
+        timestamp = new Timestamp(1_700_000_000_123L);
+        timestamp.setNanos(123_456_789);
+        date = new java.sql.Date(1_700_000_000_000L);
+        time = new Time(45_296_000L);
+    }
+
+    @Benchmark
+    public Timestamp timestampFromUtc() {
+        return DateUtil.considerTimeZone(timestamp, calendar, DateUtil.Direction.FROM_UTC);
+    }
+
+    @Benchmark
+    public Timestamp timestampToUtc() {
+        return DateUtil.considerTimeZone(timestamp, calendar, DateUtil.Direction.TO_UTC);
+    }
+
+    @Benchmark
+    public java.sql.Date dateFromUtc() {
+        return DateUtil.considerTimeZone(date, calendar, DateUtil.Direction.FROM_UTC);
+    }
+
+    @Benchmark
+    public java.sql.Date dateToUtc() {
+        return DateUtil.considerTimeZone(date, calendar, DateUtil.Direction.TO_UTC);
+    }
+
+    @Benchmark
+    public Time timeFromUtc() {
+        return DateUtil.considerTimeZone(time, calendar, DateUtil.Direction.FROM_UTC);
+    }
+
+    @Benchmark
+    public Time timeToUtc() {
+        return DateUtil.considerTimeZone(time, calendar, DateUtil.Direction.TO_UTC);
+    }
+}
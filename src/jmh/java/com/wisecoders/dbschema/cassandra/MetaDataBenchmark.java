@@ -0,0 +1,91 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists the tables and columns of a large keyspace through CassandraMetaData, and builds the schema snapshot behind it.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetaDataBenchmark {
+
+    @Param({"900"})
+    public int tableCount;
+
+    @Param({"28"})
+    public int columnCount;
+
+    private StubSession session;
+    private CassandraConnection connection;
+    private DatabaseMetaData metaData;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        session = new StubSession("bench");
+        session.addKeyspace("bench", tableCount, columnCount);
+        connection = session.connect("jdbc:cassandra://localhost/bench");
+        metaData = connection.getMetaData();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void getTables(Blackhole blackhole) throws SQLException {
+        consume(metaData.getTables("bench", null, "%", new String[]{"TABLE"}), blackhole);
+    }
+
+    @Benchmark
+    public void getTablesByPattern(Blackhole blackhole) throws SQLException {
+        consume(metaData.getTables("bench", null, "table\\_1%", null), blackhole);
+    }
+
+    @Benchmark
+    public void getColumns(Blackhole blackhole) throws SQLException {
+        consume(metaData.getColumns("bench", null, "%", "%"), blackhole);
+    }
+
+    @Benchmark
+    public void getColumnsOfTable(Blackhole blackhole) throws SQLException {
+        consume(metaData.getColumns("bench", null, "table_42", "%"), blackhole);
+    }
+
+    @Benchmark
+    public SchemaSnapshot buildSnapshot() {
+        return SchemaSnapshot.build(session.getMetadata().getKeyspaces().values(), Collections.emptyList());
+    }
+
+    private static void consume(ResultSet rs, Blackhole blackhole) throws SQLException {
+        while (rs.next()) {
+            blackhole.consume(rs.getString(3));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds the parameters of a CassandraPreparedStatement, for a single execution and for a batch.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreparedStatementBenchmark {
+
+    private static final String INSERT = "INSERT INTO bench.events (id, user_id, amount, note) VALUES (?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 100;
+
+    private CassandraConnection connection;
+    private PreparedStatement statement;
+    private long id = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        final StubSession session = new StubSession("bench");
+        session.addPrepared(INSERT, StubSession.columns("events", "id", DataTypes.BIGINT, "user_id", DataTypes.INT,
+                "amount", DataTypes.DOUBLE, "note", DataTypes.TEXT));
+        connection = session.connect("jdbc:cassandra://localhost/bench");
+        statement = connection.prepareStatement(INSERT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        connection.close();
+    }
+
+    private void bind() throws SQLException {
+        id++;
+        statement.setLong(1, id);
+        statement.setInt(2, (int) (id % 1000));
+        statement.setDouble(3, id * 0.25);
+        statement.setString(4, "event");
+    }
+
+    @Benchmark
+    public int bindAndExecute() throws SQLException {
+        bind();
+        return statement.executeUpdate();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void bindBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            bind();
+            statement.addBatch();
+        }
+        statement.clearBatch();
+    }
+}
@@ -0,0 +1,118 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a query result through the getters of CassandraResultSet, by column label and by column index.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSetBenchmark {
+
+    private static final String QUERY = "SELECT id, name, email, score, created FROM bench.users";
+
+    @Param({"1000"})
+    public int rowCount;
+
+    private CassandraConnection connection;
+    private final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("Europe/Berlin"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final StubSession session = new StubSession("bench");
+        final ColumnDefinitions columns = StubSession.columns("users", "id", DataTypes.INT, "name", DataTypes.TEXT,
+                "email", DataTypes.TEXT, "score", DataTypes.DOUBLE, "created", DataTypes.TIMESTAMP);
+        final List<Row> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(StubSession.row(columns, i, "user " + i, "user" + i + "@example.com", i * 0.5,
+                    Instant.ofEpochMilli(1_700_000_000_000L + i * 60_000L)));
+        }
+        session.addResult(QUERY, columns, rows);
+        connection = session.connect("jdbc:cassandra://localhost/bench");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void readByLabel(Blackhole blackhole) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(QUERY)) {
+            while (rs.next()) {
+                blackhole.consume(rs.getInt("id"));
+                blackhole.consume(rs.getString("name"));
+                blackhole.consume(rs.getString("email"));
+                blackhole.consume(rs.getDouble("score"));
+                blackhole.consume(rs.getTimestamp("created"));
+            }
+        }
+    }
+
+    @Benchmark
+    public void readByIndex(Blackhole blackhole) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(QUERY)) {
+            while (rs.next()) {
+                blackhole.consume(rs.getInt(1));
+                blackhole.consume(rs.getString(2));
+                blackhole.consume(rs.getString(3));
+                blackhole.consume(rs.getDouble(4));
+                blackhole.consume(rs.getTimestamp(5));
+            }
+        }
+    }
+
+    @Benchmark
+    public void readObjects(Blackhole blackhole) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(QUERY)) {
+            final int columnCount = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columnCount; i++) {
+                    blackhole.consume(rs.getObject(i));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void readTimestampWithCalendar(Blackhole blackhole) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(QUERY)) {
+            while (rs.next()) {
+                blackhole.consume(rs.getTimestamp("created", calendar));
+            }
+        }
+    }
+}
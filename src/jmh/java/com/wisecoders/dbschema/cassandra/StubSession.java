@@ -0,0 +1,284 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.PrepareRequest;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.detach.AttachmentPoint;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metrics.Metrics;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinition;
+import com.datastax.oss.driver.internal.core.cql.DefaultColumnDefinitions;
+import com.datastax.oss.driver.internal.core.cql.DefaultPreparedStatement;
+import com.datastax.oss.driver.internal.core.cql.DefaultRow;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultColumnMetadata;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultKeyspaceMetadata;
+import com.datastax.oss.driver.internal.core.metadata.schema.DefaultTableMetadata;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * In-process stand-in for a Cassandra session, so the benchmarks run offline. Queries return the rows registered for the
+ * query text as one page, prepared statements get the variables registered for the query, and the schema metadata is
+ * the registered keyspaces. Rows and column definitions are the driver implementations, encoded with the default codecs.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class StubSession implements CqlSession {
+
+    static final ProtocolVersion PROTOCOL_VERSION = DefaultProtocolVersion.V4;
+    static final AttachmentPoint ATTACHMENT_POINT = new AttachmentPoint() {
+        @Override
+        public ProtocolVersion getProtocolVersion() {
+            return PROTOCOL_VERSION;
+        }
+
+        @Override
+        public CodecRegistry getCodecRegistry() {
+            return CodecRegistry.DEFAULT;
+        }
+    };
+    private static final AsyncResultSet EMPTY = new Page(DefaultColumnDefinitions.valueOf(Collections.emptyList()), Collections.emptyList());
+
+    private final CqlIdentifier keyspace;
+    private final Map<CqlIdentifier, KeyspaceMetadata> keyspaces = new LinkedHashMap<>();
+    private final Map<String, AsyncResultSet> results = new HashMap<>();
+    private final Map<String, ColumnDefinitions> variables = new HashMap<>();
+
+    StubSession(String keyspace) {
+        this.keyspace = CqlIdentifier.fromInternal(keyspace);
+    }
+
+    /**
+     * @param namesAndTypes column names, each followed by its type
+     */
+    static ColumnDefinitions columns(String table, Object... namesAndTypes) {
+        final List<ColumnDefinition> definitions = new ArrayList<>();
+        for (int i = 0; i < namesAndTypes.length; i += 2) {
+            final DataType type = (DataType) namesAndTypes[i + 1];
+            final RawType rawType = RawType.PRIMITIVES.get(type.getProtocolCode());
+            definitions.add(new DefaultColumnDefinition(new ColumnSpec("bench", table, (String) namesAndTypes[i], i / 2, rawType), ATTACHMENT_POINT));
+        }
+        return DefaultColumnDefinitions.valueOf(definitions);
+    }
+
+    static Row row(ColumnDefinitions columns, Object... values) {
+        final List<ByteBuffer> data = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            data.add(values[i] == null ? null : CodecRegistry.DEFAULT.codecFor(columns.get(i).getType(), values[i]).encode(values[i], PROTOCOL_VERSION));
+        }
+        return new DefaultRow(columns, data, ATTACHMENT_POINT);
+    }
+
+    /**
+     * A connection using this session, as opened by the JdbcDriver for the given URL.
+     */
+    CassandraConnection connect(String url) {
+        return new CassandraConnection(new SharedSession(null, this, new SchemaChangeDispatcher()), null, new CassandraClientURI(url, null), false);
+    }
+
+    void addResult(String query, ColumnDefinitions columns, List<Row> rows) {
+        results.put(query, new Page(columns, rows));
+    }
+
+    void addPrepared(String query, ColumnDefinitions variableDefinitions) {
+        variables.put(query, variableDefinitions);
+    }
+
+    /**
+     * Adds a keyspace with the given number of tables, each with a text partition key and <code>columnCount - 1</code> int columns.
+     */
+    void addKeyspace(String name, int tableCount, int columnCount) {
+        final CqlIdentifier keyspaceName = CqlIdentifier.fromInternal(name);
+        final Map<CqlIdentifier, TableMetadata> tables = new LinkedHashMap<>();
+        for (int t = 0; t < tableCount; t++) {
+            final CqlIdentifier tableName = CqlIdentifier.fromInternal("table_" + t);
+            final Map<CqlIdentifier, ColumnMetadata> tableColumns = new LinkedHashMap<>();
+            for (int c = 0; c < columnCount; c++) {
+                final CqlIdentifier columnName = CqlIdentifier.fromInternal(c == 0 ? "id" : "column_" + c);
+                tableColumns.put(columnName, new DefaultColumnMetadata(keyspaceName, tableName, columnName,
+                        c == 0 ? DataTypes.TEXT : DataTypes.INT, false));
+            }
+            tables.put(tableName, new DefaultTableMetadata(keyspaceName, tableName, UUID.randomUUID(), false, false,
+                    Collections.singletonList(tableColumns.values().iterator().next()), Collections.<ColumnMetadata, ClusteringOrder>emptyMap(),
+                    tableColumns, Collections.emptyMap(), Collections.emptyMap()));
+        }
+        keyspaces.put(keyspaceName, new DefaultKeyspaceMetadata(keyspaceName, true, false, Collections.emptyMap(),
+                Collections.emptyMap(), tables, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <RequestT extends Request, ResultT> ResultT execute(RequestT request, GenericType<ResultT> resultType) {
+        if (resultType.equals(Statement.ASYNC)) {
+            final String query = request instanceof SimpleStatement ? ((SimpleStatement) request).getQuery() : null;
+            return (ResultT) CompletableFuture.completedFuture(results.getOrDefault(query, EMPTY));
+        }
+        if (resultType.equals(PrepareRequest.ASYNC)) {
+            final String query = ((PrepareRequest) request).getQuery();
+            final ColumnDefinitions noColumns = DefaultColumnDefinitions.valueOf(Collections.emptyList());
+            return (ResultT) CompletableFuture.completedFuture(new DefaultPreparedStatement(ByteBuffer.wrap(query.getBytes()), query,
+                    variables.getOrDefault(query, noColumns), Collections.emptyList(), null, noColumns, keyspace, Collections.emptyMap(),
+                    null, null, null, null, null, Collections.emptyMap(), null, null, null, 0, null, null, false,
+                    CodecRegistry.DEFAULT, PROTOCOL_VERSION));
+        }
+        throw new UnsupportedOperationException("Request type " + resultType + " is not supported by the stub session");
+    }
+
+    @Override
+    public String getName() {
+        return "stub";
+    }
+
+    @Override
+    public Metadata getMetadata() {
+        return new Metadata() {
+            @Override
+            public Map<UUID, Node> getNodes() {
+                return Collections.emptyMap();
+            }
+
+            @Override
+            public Map<CqlIdentifier, KeyspaceMetadata> getKeyspaces() {
+                return keyspaces;
+            }
+
+            @Override
+            public Optional<TokenMap> getTokenMap() {
+                return Optional.empty();
+            }
+        };
+    }
+
+    @Override
+    public boolean isSchemaMetadataEnabled() {
+        return true;
+    }
+
+    @Override
+    public CompletionStage<Metadata> setSchemaMetadataEnabled(Boolean newValue) {
+        return CompletableFuture.completedFuture(getMetadata());
+    }
+
+    @Override
+    public CompletionStage<Metadata> refreshSchemaAsync() {
+        return CompletableFuture.completedFuture(getMetadata());
+    }
+
+    @Override
+    public CompletionStage<Boolean> checkSchemaAgreementAsync() {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public DriverContext getContext() {
+        throw new UnsupportedOperationException("The stub session has no driver context");
+    }
+
+    @Override
+    public Optional<CqlIdentifier> getKeyspace() {
+        return Optional.of(keyspace);
+    }
+
+    @Override
+    public Optional<Metrics> getMetrics() {
+        return Optional.empty();
+    }
+
+    @Override
+    public CompletionStage<Void> closeFuture() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletionStage<Void> closeAsync() {
+        return closeFuture();
+    }
+
+    @Override
+    public CompletionStage<Void> forceCloseAsync() {
+        return closeFuture();
+    }
+
+    /**
+     * A single page result. The rows are shared by all executions, they are immutable.
+     */
+    private static final class Page implements AsyncResultSet {
+
+        private final ColumnDefinitions columns;
+        private final List<Row> rows;
+
+        Page(ColumnDefinitions columns, List<Row> rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        @Override
+        public ColumnDefinitions getColumnDefinitions() {
+            return columns;
+        }
+
+        @Override
+        public ExecutionInfo getExecutionInfo() {
+            return null;
+        }
+
+        @Override
+        public int remaining() {
+            return rows.size();
+        }
+
+        @Override
+        public Iterable<Row> currentPage() {
+            return rows;
+        }
+
+        @Override
+        public boolean hasMorePages() {
+            return false;
+        }
+
+        @Override
+        public CompletionStage<AsyncResultSet> fetchNextPage() {
+            throw new IllegalStateException("No more pages");
+        }
+
+        @Override
+        public boolean wasApplied() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.sql.ResultSet;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Non-blocking execution of a PreparedStatement with the parameters set so far, obtained with
+ * <code>preparedStatement.unwrap(AsyncCassandraPreparedStatement.class)</code>. See AsyncCassandraStatement.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+public interface AsyncCassandraPreparedStatement {
+
+    CompletionStage<ResultSet> executeQueryAsync();
+
+    /**
+     * @return a stage completing with the update count, 1 for any executed statement
+     */
+    CompletionStage<Integer> executeUpdateAsync();
+
+    /**
+     * Publisher of the query rows, executing the query for each subscriber. Rows are read from the server only as the subscriber
+     * requests them, one page at a time, so the memory used does not depend on the result size. Errors are signalled as SQLException.
+     */
+    Flow.Publisher<Row> publishQuery();
+}
@@ -0,0 +1,32 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.sql.ResultSet;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Non-blocking execution of a Statement, obtained with <code>statement.unwrap(AsyncCassandraStatement.class)</code>.
+ * The stages complete in a driver thread, when the first page is received; errors are reported as SQLException.
+ * The returned result set reads the rows of the received pages without blocking. Use <code>CassandraResultSet.fetchAsync()</code>
+ * to be notified when the next page is received, instead of blocking in <code>next()</code>.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+public interface AsyncCassandraStatement {
+
+    CompletionStage<ResultSet> executeQueryAsync(String sql);
+
+    /**
+     * @return a stage completing with the update count, 1 for any executed statement
+     */
+    CompletionStage<Integer> executeUpdateAsync(String sql);
+
+    /**
+     * Publisher of the query rows, executing the query for each subscriber. Rows are read from the server only as the subscriber
+     * requests them, one page at a time, so the memory used does not depend on the result size. Errors are signalled as SQLException.
+     */
+    Flow.Publisher<Row> publishQuery(String sql);
+}
@@ -0,0 +1,155 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler keeping the records in a ring buffer, written to the target handlers by a background thread, so logging never waits
+ * for the console or the disk. When the buffer is full the oldest record is dropped; the number of dropped records is logged
+ * with the next records written.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class AsyncLogHandler extends Handler {
+
+    private final Handler[] targets;
+    private final LogRecord[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread writer;
+    private int head = 0;
+    private int size = 0;
+    private long dropped = 0;
+    private boolean writing = false;
+    private boolean closed = false;
+
+    AsyncLogHandler(int capacity, Handler... targets) {
+        this.targets = targets;
+        this.ring = new LogRecord[capacity];
+        this.writer = new Thread(this::write, "cassandra-jdbc-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        // the source class and method are inferred from the stack of the first caller, which must be the logging thread
+        record.getSourceClassName();
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (size == ring.length) {
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+                size--;
+                dropped++;
+            }
+            ring[(head + size) % ring.length] = record;
+            size++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() {
+        final List<LogRecord> records = new ArrayList<>();
+        while (true) {
+            final long droppedRecords;
+            lock.lock();
+            try {
+                writing = false;
+                changed.signalAll();
+                while (size == 0 && !closed) {
+                    changed.awaitUninterruptibly();
+                }
+                if (size == 0) {
+                    return;
+                }
+                for (; size > 0; size--) {
+                    records.add(ring[head]);
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                }
+                droppedRecords = dropped;
+                dropped = 0;
+                writing = true;
+            } finally {
+                lock.unlock();
+            }
+            if (droppedRecords > 0) {
+                final LogRecord notice = new LogRecord(Level.WARNING, droppedRecords + " log records were dropped, the log buffer was full");
+                notice.setLoggerName(records.get(0).getLoggerName());
+                records.add(0, notice);
+            }
+            for (LogRecord record : records) {
+                for (Handler target : targets) {
+                    try {
+                        target.publish(record);
+                    } catch (RuntimeException ex) {
+                        reportError(null, ex, ErrorManager.WRITE_FAILURE);
+                    }
+                }
+            }
+            for (Handler target : targets) {
+                try {
+                    target.flush();
+                } catch (RuntimeException ex) {
+                    reportError(null, ex, ErrorManager.FLUSH_FAILURE);
+                }
+            }
+            records.clear();
+        }
+    }
+
+    /**
+     * Wait up to one second until the records published before are written.
+     */
+    @Override
+    public void flush() {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        lock.lock();
+        try {
+            long remaining;
+            while ((size > 0 || writing) && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                changed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the buffered records and stop the writer thread. The target handlers are flushed, not closed.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
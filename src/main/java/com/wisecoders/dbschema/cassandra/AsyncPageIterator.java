@@ -0,0 +1,271 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Iterates the rows of an asynchronous result set and reads the next pages ahead, while the caller consumes the current page.
+ * Each page is requested with the paging state of the previous one, so there is at most one request in flight. The pages
+ * received and not yet consumed are buffered up to <code>prefetchPages</code> pages and <code>maxBytes</code> bytes.
+ * With prefetchPages = 0 the next page is requested only when the current page is consumed.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class AsyncPageIterator implements RowSource {
+
+    private final CqlSession session;
+    private final int prefetchPages;
+    private final long maxBytes;
+    private final StatementExecution execution;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pageArrived = lock.newCondition();
+    private final Deque<AsyncResultSet> readyPages = new ArrayDeque<>();
+    private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private long bufferedBytes = 0;
+    private Statement<?> statement;
+    private AsyncResultSet lastReceived;
+    private CompletableFuture<AsyncResultSet> inFlight;
+    private long inFlightSince;
+    private Throwable failure;
+    private boolean closed = false;
+    private int pageSize = 0;
+
+    private AsyncResultSet current;
+    private Iterator<Row> currentRows;
+
+    AsyncPageIterator(CqlSession session, Statement<?> statement, AsyncResultSet firstPage, int prefetchPages, long maxBytes) {
+        this(session, statement, firstPage, prefetchPages, maxBytes, null);
+    }
+
+    /**
+     * @param statement the executed statement, executed again with the paging state if the page size is changed
+     * @param execution records the rows and the next pages, null if the statement metrics and the slow query log are disabled
+     */
+    AsyncPageIterator(CqlSession session, Statement<?> statement, AsyncResultSet firstPage, int prefetchPages, long maxBytes, StatementExecution execution) {
+        this.session = session;
+        this.statement = statement;
+        this.prefetchPages = prefetchPages;
+        this.maxBytes = maxBytes;
+        this.execution = execution;
+        this.current = firstPage;
+        this.currentRows = firstPage.currentPage().iterator();
+        this.lastReceived = firstPage;
+        lock.lock();
+        try {
+            prefetch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public ExecutionInfo getExecutionInfo() {
+        return current.getExecutionInfo();
+    }
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions() {
+        return current.getColumnDefinitions();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentRows.hasNext()) {
+            lock.lock();
+            try {
+                while (readyPages.isEmpty()) {
+                    if (failure != null) {
+                        throw new CompletionException(failure);
+                    }
+                    if (closed) {
+                        return false;
+                    }
+                    if (inFlight == null) {
+                        if (!lastReceived.hasMorePages()) {
+                            if (execution != null) {
+                                execution.finished();
+                            }
+                            return false;
+                        }
+                        requestNextPage();
+                        // the page may have been completed already, in this thread
+                        continue;
+                    }
+                    pageArrived.awaitUninterruptibly();
+                }
+                current = readyPages.poll();
+                bufferedBytes -= sizeOf(current);
+                currentRows = current.currentPage().iterator();
+                prefetch();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public CompletionStage<Void> ready() {
+        lock.lock();
+        try {
+            if (currentRows.hasNext() || !readyPages.isEmpty() || failure != null || closed
+                    || (inFlight == null && !lastReceived.hasMorePages())) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            if (inFlight == null) {
+                requestNextPage();
+            }
+            return waiter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (execution != null) {
+            execution.rowRead();
+        }
+        return currentRows.next();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            readyPages.clear();
+            bufferedBytes = 0;
+            if (inFlight != null) {
+                inFlight.cancel(true);
+            }
+            pageArrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (execution != null) {
+            execution.finished();
+        }
+        completeWaiters();
+    }
+
+    // Called with the lock held.
+    private void prefetch() {
+        if (inFlight == null && !closed && failure == null && lastReceived.hasMorePages()
+                && readyPages.size() < prefetchPages && bufferedBytes < maxBytes) {
+            requestNextPage();
+        }
+    }
+
+    // Called with the lock held.
+    private void requestNextPage() {
+        final CompletionStage<AsyncResultSet> stage;
+        if (pageSize > 0 && statement.getPageSize() != pageSize) {
+            statement = statement.setPagingState(lastReceived.getExecutionInfo().getPagingState()).setPageSize(pageSize);
+            stage = session.executeAsync(statement);
+        } else {
+            stage = lastReceived.fetchNextPage();
+        }
+        final CompletableFuture<AsyncResultSet> future = stage.toCompletableFuture();
+        inFlight = future;
+        inFlightSince = System.nanoTime();
+        future.whenComplete(this::onPage);
+    }
+
+    private void onPage(AsyncResultSet page, Throwable error) {
+        lock.lock();
+        try {
+            inFlight = null;
+            if (closed) {
+                return;
+            }
+            if (error != null) {
+                failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            } else {
+                if (execution != null) {
+                    execution.pageFetched(inFlightSince, page);
+                }
+                readyPages.add(page);
+                bufferedBytes += sizeOf(page);
+                lastReceived = page;
+                prefetch();
+            }
+            pageArrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        completeWaiters();
+    }
+
+    // Called without the lock, the waiters may continue in this thread.
+    private void completeWaiters() {
+        final List<CompletableFuture<Void>> completed;
+        lock.lock();
+        try {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            completed = new ArrayList<>(waiters);
+            waiters.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (CompletableFuture<Void> waiter : completed) {
+            waiter.complete(null);
+        }
+    }
+
+    static long sizeOf(AsyncResultSet page) {
+        return Math.max(0, page.getExecutionInfo().getResponseSizeInBytes());
+    }
+
+    /**
+     * Wait for the asynchronous execution. Driver exceptions are thrown as they are, like the synchronous API does.
+     */
+    static <T> T await(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ex);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+
+import java.nio.ByteBuffer;
+import java.sql.BatchUpdateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * Executes the statements added with addBatch(), as one LOGGED batch, as UNLOGGED batches grouped by replica set, or as
+ * individual statements. Statements of the same group are sent to a coordinator which is a replica for all of them, and no batch
+ * is larger than <code>maxBatchBytes</code>, so the batch size warning is not triggered. Counter updates are grouped in their own
+ * COUNTER batches and conditional statements are sent alone, since Cassandra rejects them in mixed or multi-partition batches.
+ * The UNLOGGED batches and the individual statements are executed asynchronously, with at most <code>concurrency</code> requests in flight.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class BatchExecutor {
+
+    static final int DEFAULT_CONCURRENCY = 32;
+    private static final Object NO_ROUTING = new Object();
+    private static final CqlIdentifier APPLIED = CqlIdentifier.fromInternal("[applied]");
+    private static final Pattern CONDITION = Pattern.compile("\\bIF\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COUNTER_LITERAL = Pattern.compile("(\"[^\"]+\"|\\w+)\\s*=\\s*\\1\\s*[+-]\\s*\\d");
+
+    private final CqlSession session;
+    private final BatchMode mode;
+    private final int maxBatchBytes;
+    private final int concurrency;
+
+    BatchExecutor(CqlSession session, BatchMode mode, int maxBatchBytes, int concurrency) {
+        this.session = session;
+        this.mode = mode;
+        this.maxBatchBytes = maxBatchBytes;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * @return the update counts: SUCCESS_NO_INFO for each statement, or 0 for conditional statements which were not applied
+     * @throws BatchUpdateException with the update counts of all statements, EXECUTE_FAILED for the failed ones
+     */
+    int[] execute(List<BatchableStatement<?>> statements) throws BatchUpdateException {
+        final int[] updateCounts = new int[statements.size()];
+        Arrays.fill(updateCounts, java.sql.Statement.SUCCESS_NO_INFO);
+        if (mode == BatchMode.LOGGED) {
+            try {
+                if (!AsyncPageIterator.await(session.executeAsync(BatchStatement.newInstance(BatchType.LOGGED, statements))).wasApplied()) {
+                    Arrays.fill(updateCounts, 0);
+                }
+            } catch (RuntimeException ex) {
+                Arrays.fill(updateCounts, java.sql.Statement.EXECUTE_FAILED);
+                throw new BatchUpdateException(ex.getMessage(), updateCounts, ex);
+            }
+            return updateCounts;
+        }
+        final Semaphore inFlight = new Semaphore(concurrency);
+        final Throwable[] firstFailure = new Throwable[1];
+        final List<List<Integer>> chunks = mode == BatchMode.FANOUT ? singletons(statements.size()) : split(statements);
+        for (List<Integer> chunk : chunks) {
+            final Statement<?> statement;
+            if (chunk.size() == 1) {
+                statement = statements.get(chunk.get(0));
+            } else {
+                final List<BatchableStatement<?>> children = new ArrayList<>(chunk.size());
+                for (int index : chunk) {
+                    children.add(statements.get(index));
+                }
+                statement = BatchStatement.newInstance(isCounter(children.get(0)) ? BatchType.COUNTER : BatchType.UNLOGGED, children);
+            }
+            inFlight.acquireUninterruptibly();
+            session.executeAsync(statement).whenComplete((result, error) -> {
+                synchronized (updateCounts) {
+                    if (error != null) {
+                        for (int index : chunk) {
+                            updateCounts[index] = java.sql.Statement.EXECUTE_FAILED;
+                        }
+                        if (firstFailure[0] == null) {
+                            firstFailure[0] = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        }
+                    } else if (!result.wasApplied()) {
+                        for (int index : chunk) {
+                            updateCounts[index] = 0;
+                        }
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquireUninterruptibly(concurrency);
+        synchronized (updateCounts) {
+            if (firstFailure[0] != null) {
+                throw new BatchUpdateException(firstFailure[0].getMessage(), updateCounts.clone(), firstFailure[0]);
+            }
+        }
+        return updateCounts;
+    }
+
+    private static List<List<Integer>> singletons(int count) {
+        final List<List<Integer>> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(Collections.singletonList(i));
+        }
+        return chunks;
+    }
+
+    /**
+     * Group the statements by replica set, or by partition if the token map is not available, the counter updates apart,
+     * and split each group in chunks of at most maxBatchBytes. Each conditional statement is a chunk of its own.
+     *
+     * @return the chunks, as statement indexes
+     */
+    List<List<Integer>> split(List<BatchableStatement<?>> statements) {
+        final Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        final Map<Object, List<Integer>> counterGroups = new LinkedHashMap<>();
+        final List<List<Integer>> conditional = new ArrayList<>();
+        final Optional<TokenMap> tokenMap = session.getMetadata().getTokenMap();
+        for (int i = 0; i < statements.size(); i++) {
+            final BatchableStatement<?> statement = statements.get(i);
+            if (isConditional(statement)) {
+                conditional.add(Collections.singletonList(i));
+            } else {
+                (isCounter(statement) ? counterGroups : groups).computeIfAbsent(groupKey(statement, tokenMap), key -> new ArrayList<>()).add(i);
+            }
+        }
+        final List<List<Integer>> chunks = new ArrayList<>();
+        addChunks(groups.values(), statements, chunks);
+        addChunks(counterGroups.values(), statements, chunks);
+        chunks.addAll(conditional);
+        return chunks;
+    }
+
+    private void addChunks(Collection<List<Integer>> groups, List<BatchableStatement<?>> statements, List<List<Integer>> chunks) {
+        final DriverContext context = session.getContext();
+        for (List<Integer> group : groups) {
+            List<Integer> chunk = new ArrayList<>();
+            int chunkBytes = 0;
+            for (int index : group) {
+                final int bytes = maxBatchBytes > 0 ? statements.get(index).computeSizeInBytes(context) : 0;
+                if (!chunk.isEmpty() && chunkBytes + bytes > maxBatchBytes) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>();
+                    chunkBytes = 0;
+                }
+                chunk.add(index);
+                chunkBytes += bytes;
+            }
+            chunks.add(chunk);
+        }
+    }
+
+    /**
+     * Prepared conditional statements return the [applied] column. The text of simple statements is searched for IF,
+     * a string literal containing it only costs a batch.
+     */
+    static boolean isConditional(BatchableStatement<?> statement) {
+        if (statement instanceof BoundStatement) {
+            return ((BoundStatement) statement).getPreparedStatement().getResultSetDefinitions().contains(APPLIED);
+        }
+        return statement instanceof SimpleStatement && CONDITION.matcher(((SimpleStatement) statement).getQuery()).find();
+    }
+
+    /**
+     * Counter updates bind a counter variable, or add a number literal to a column, like <code>SET hits = hits + 1</code>.
+     */
+    static boolean isCounter(BatchableStatement<?> statement) {
+        final String query;
+        if (statement instanceof BoundStatement) {
+            final PreparedStatement prepared = ((BoundStatement) statement).getPreparedStatement();
+            for (ColumnDefinition variable : prepared.getVariableDefinitions()) {
+                if (DataTypes.COUNTER.equals(variable.getType())) {
+                    return true;
+                }
+            }
+            query = prepared.getQuery();
+        } else if (statement instanceof SimpleStatement) {
+            query = ((SimpleStatement) statement).getQuery();
+        } else {
+            return false;
+        }
+        return COUNTER_LITERAL.matcher(query).find();
+    }
+
+    private Object groupKey(BatchableStatement<?> statement, Optional<TokenMap> tokenMap) {
+        Token token = statement.getRoutingToken();
+        final ByteBuffer routingKey = token == null ? statement.getRoutingKey() : null;
+        if (token == null && routingKey == null) {
+            return NO_ROUTING;
+        }
+        CqlIdentifier keyspace = statement.getRoutingKeyspace() != null ? statement.getRoutingKeyspace() : statement.getKeyspace();
+        if (keyspace == null) {
+            keyspace = session.getKeyspace().orElse(null);
+        }
+        if (!tokenMap.isPresent() || keyspace == null) {
+            return token != null ? token : routingKey;
+        }
+        if (token == null) {
+            token = tokenMap.get().newToken(routingKey);
+        }
+        return tokenMap.get().getReplicas(keyspace, token);
+    }
+}
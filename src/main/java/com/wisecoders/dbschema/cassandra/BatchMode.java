@@ -0,0 +1,39 @@
+package com.wisecoders.dbschema.cassandra;
+
+/**
+ * How the statements added with addBatch() are executed, set by the URL option <code>batchmode</code>.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+public enum BatchMode {
+
+    /**
+     * All statements are sent as one LOGGED batch, which is applied atomically using the batch log.
+     */
+    LOGGED,
+
+    /**
+     * The statements are grouped by replica set, and each group is sent as UNLOGGED batches to one of its replicas.
+     * The groups are executed in parallel, and split in batches of at most <code>batchmaxbytes</code>.
+     * Counter updates are grouped in COUNTER batches, conditional statements are executed alone.
+     */
+    UNLOGGED,
+
+    /**
+     * Each statement is executed on its own, asynchronously, with at most <code>batchconcurrency</code> statements in flight.
+     */
+    FANOUT;
+
+    static BatchMode parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return LOGGED;
+        }
+        for (BatchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Option batchmode should be one of logged, unlogged, fanout, but is '" + value + "'");
+    }
+}
@@ -1,23 +1,58 @@
 package com.wisecoders.dbschema.cassandra;
 
 import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
 
 import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
  * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
  */
 public abstract class CassandraBaseStatement implements Statement {
+
+    private static final Pattern SELECT = Pattern.compile("\\s*SELECT\\s.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern LIMIT_OR_AGGREGATE = Pattern.compile("\\bLIMIT\\s|\\bGROUP\\s+BY\\b|\\b(?:COUNT|MIN|MAX|SUM|AVG)\\s*\\(",
+            Pattern.CASE_INSENSITIVE);
+
+    final CassandraConnection connection;
     final CqlSession session;
-    BatchStatementBuilder batchStatementBuilder = null;
+    private final StatementMetrics metrics;
+    private final long slowQueryNanos;
+    final List<BatchableStatement<?>> batchStatements = new ArrayList<>();
     private boolean isClosed = false;
-    CassandraResultSet result;
+    int fetchSize = 0;
+    int maxRows;
+    private int queryTimeout = 0;
+    private volatile boolean cancelled = false;
+    private volatile CompletableFuture<AsyncResultSet> running;
+    volatile CassandraResultSet result;
+    private ColumnDefinitions metaDataDefinitions;
+    private CassandraResultSetMetaData metaData;
 
-    CassandraBaseStatement(CqlSession session) {
-        this.session = session;
+    CassandraBaseStatement(CassandraConnection connection) {
+        this.connection = connection;
+        this.session = connection.getSession();
+        this.metrics = connection.getMetrics();
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(connection.getClientURI().getSlowQueryMillis());
+        this.maxRows = connection.getClientURI().getMaxRows();
     }
 
     @Override
@@ -36,9 +71,211 @@ public abstract class CassandraBaseStatement implements Statement {
         return isClosed;
     }
 
-    boolean executeInner(com.datastax.oss.driver.api.core.cql.ResultSet resultSet, boolean returnNullStrings) throws SQLException {
+    /**
+     * Apply the statement options to the native statement before executing it.
+     * The fetch size is used as page size, so the result set reads the rows page by page.
+     * With max rows set, the page size of a SELECT without LIMIT or aggregates is at most max rows, so the first page holds
+     * all the rows the result set returns, and no other page is requested.
+     * The query timeout is set as the request timeout, and applies to each page.
+     */
+    <S extends com.datastax.oss.driver.api.core.cql.Statement<S>> S applyOptions(S statement) {
+        int pageSize = fetchSize;
+        if (maxRows > 0 && (pageSize == 0 || pageSize > maxRows) && isLimitable(queryOf(statement))) {
+            pageSize = maxRows;
+        }
+        if (pageSize > 0) {
+            statement = statement.setPageSize(pageSize);
+        }
+        if (queryTimeout > 0) {
+            statement = statement.setTimeout(Duration.ofSeconds(queryTimeout));
+        }
+        return statement;
+    }
+
+    private static String queryOf(com.datastax.oss.driver.api.core.cql.Statement<?> statement) {
+        if (statement instanceof SimpleStatement) {
+            return ((SimpleStatement) statement).getQuery();
+        }
+        if (statement instanceof BoundStatement) {
+            return ((BoundStatement) statement).getPreparedStatement().getQuery();
+        }
+        return null;
+    }
+
+    static boolean isLimitable(String cql) {
+        return cql != null && SELECT.matcher(cql).matches() && !LIMIT_OR_AGGREGATE.matcher(cql).find();
+    }
+
+    /**
+     * Execute the native statement asynchronously and wait for the first page, so cancel() can abort the request from another thread.
+     * The result set reads the next pages ahead if the connection has the <code>prefetchpages</code> option set, otherwise when the current page is consumed.
+     */
+    CassandraResultSet executeStatement(com.datastax.oss.driver.api.core.cql.Statement<?> statement, boolean returnNullStrings) {
+        final StatementExecution execution = startExecution(statement);
+        final CompletableFuture<AsyncResultSet> future = startRequest(statement);
+        final AsyncResultSet firstPage;
         try {
-            result = new CassandraResultSet(this, resultSet, returnNullStrings);
+            firstPage = AsyncPageIterator.await(future);
+        } catch (CancellationException ex) {
+            executed(execution, null, ex);
+            throw new CancellationException("Statement was cancelled.");
+        } catch (RuntimeException | Error ex) {
+            executed(execution, null, ex);
+            throw ex;
+        } finally {
+            running = null;
+        }
+        // recorded in this thread, before the result set can finish the execution
+        executed(execution, firstPage, null);
+        return newResultSet(statement, firstPage, returnNullStrings, execution);
+    }
+
+    /**
+     * Execute the native statement without waiting. The stage completes in a driver thread, with the result set of the first
+     * page or with a SQLException, and sets the statement current result set.
+     */
+    CompletionStage<CassandraResultSet> executeStatementAsync(com.datastax.oss.driver.api.core.cql.Statement<?> statement, boolean returnNullStrings) {
+        final StatementExecution execution = startExecution(statement);
+        final CompletableFuture<AsyncResultSet> future = startRequest(statement);
+        final CompletableFuture<CassandraResultSet> resultStage = new CompletableFuture<>();
+        future.whenComplete((firstPage, error) -> {
+            if (running == future) {
+                running = null;
+            }
+            executed(execution, firstPage, error);
+            if (error != null) {
+                resultStage.completeExceptionally(toSQLException(error));
+                return;
+            }
+            try {
+                result = newResultSet(statement, firstPage, returnNullStrings, execution);
+                resultStage.complete(result);
+            } catch (Throwable t) {
+                resultStage.completeExceptionally(toSQLException(t));
+            }
+        });
+        return resultStage;
+    }
+
+    /**
+     * Publish the running request before it starts, so a cancel() from another thread cannot be missed: cancelling the
+     * returned future cancels the driver request, also if it is started afterwards.
+     */
+    private CompletableFuture<AsyncResultSet> startRequest(com.datastax.oss.driver.api.core.cql.Statement<?> statement) {
+        cancelled = false;
+        final CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+        running = future;
+        if (cancelled) {
+            future.cancel(true);
+            return future;
+        }
+        final CompletableFuture<AsyncResultSet> request = session.executeAsync(statement).toCompletableFuture();
+        future.whenComplete((firstPage, error) -> {
+            if (future.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        request.whenComplete((firstPage, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(firstPage);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Publisher executing the native statement for each subscriber. The pages are read without prefetch, the next page is requested
+     * only when the current one is emitted and the subscriber requests more rows.
+     */
+    Flow.Publisher<Row> publishStatement(com.datastax.oss.driver.api.core.cql.Statement<?> statement) {
+        return new RowPublisher(() -> {
+            final StatementExecution execution = startExecution(statement);
+            return session.executeAsync(statement).thenApply(page -> {
+                executed(execution, page, null);
+                return new AsyncPageIterator(session, statement, page, 0, 0, execution);
+            }).whenComplete((iterator, error) -> {
+                if (error != null) {
+                    executed(execution, null, error);
+                }
+            });
+        });
+    }
+
+    /**
+     * Start following the execution for the statement metrics and the slow query log, if enabled by the <code>metrics</code>
+     * or the <code>slowquerymillis</code> URL options.
+     */
+    StatementExecution startExecution(com.datastax.oss.driver.api.core.cql.Statement<?> statement) {
+        if (metrics == null && slowQueryNanos == 0) {
+            return null;
+        }
+        return new StatementExecution(statement, metrics == null ? null : metrics.get(queryOf(statement)), slowQueryNanos);
+    }
+
+    /**
+     * Record the first page or the error, in the thread continuing with the result, before the result set is read.
+     */
+    private static void executed(StatementExecution execution, AsyncResultSet firstPage, Throwable error) {
+        if (execution != null) {
+            execution.executed(firstPage, error);
+        }
+    }
+
+    private CassandraResultSet newResultSet(com.datastax.oss.driver.api.core.cql.Statement<?> statement, AsyncResultSet firstPage, boolean returnNullStrings, StatementExecution execution) {
+        final CassandraClientURI clientURI = connection.getClientURI();
+        final CassandraResultSet resultSet = new CassandraResultSet(this, new AsyncPageIterator(session, statement, firstPage, clientURI.getPrefetchPages(), clientURI.getPrefetchMaxBytes(), execution), returnNullStrings);
+        if (cancelled) {
+            resultSet.cancel();
+        }
+        return resultSet;
+    }
+
+    static int toUpdateCount(CassandraResultSet resultSet) {
+        if (resultSet.isQuery()) {
+            throw new CompletionException(new SQLException("Not an update statement"));
+        }
+        return 1;
+    }
+
+    /**
+     * The SQLException reporting an asynchronous execution error.
+     */
+    static SQLException toSQLException(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof SQLException) {
+            return (SQLException) error;
+        }
+        if (error instanceof CancellationException) {
+            return new SQLException("Statement was cancelled.", error);
+        }
+        if (error instanceof SyntaxError) {
+            return new SQLSyntaxErrorException(error.getMessage(), error);
+        }
+        if (error instanceof DriverTimeoutException) {
+            return new SQLTimeoutException(error.getMessage(), error);
+        }
+        return new SQLException(error.getMessage(), error);
+    }
+
+    /**
+     * The metadata is built once and reused while the column definitions do not change. The executions of a prepared
+     * statement return the column definitions of the prepared statement, so they share the same metadata.
+     */
+    CassandraResultSetMetaData getResultSetMetaData(ColumnDefinitions columnDefinitions) {
+        if (metaData == null || metaDataDefinitions != columnDefinitions) {
+            metaData = CassandraResultSetMetaData.of(columnDefinitions);
+            metaDataDefinitions = columnDefinitions;
+        }
+        return metaData;
+    }
+
+    boolean executeInner(com.datastax.oss.driver.api.core.cql.Statement<?> statement, boolean returnNullStrings) throws SQLException {
+        try {
+            result = executeStatement(statement, returnNullStrings);
             if (!result.isQuery()) {
                 result = null;
                 return false;
@@ -46,6 +283,8 @@ public abstract class CassandraBaseStatement implements Statement {
             return true;
         } catch (SyntaxError ex) {
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
+        } catch (DriverTimeoutException ex) {
+            throw new SQLTimeoutException(ex.getMessage(), ex);
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         }
@@ -65,30 +304,34 @@ public abstract class CassandraBaseStatement implements Statement {
 
     @Override
     public int[] executeBatch() throws SQLException {
-        if (batchStatementBuilder == null) throw new SQLException("No batch statements were submitted");
-        int statementsCount = batchStatementBuilder.getStatementsCount();
+        checkClosed();
+        if (batchStatements.isEmpty()) throw new SQLException("No batch statements were submitted");
+        final CassandraClientURI clientURI = connection.getClientURI();
         try {
-            session.execute(batchStatementBuilder.build());
+            return new BatchExecutor(session, clientURI.getBatchMode(), clientURI.getBatchMaxBytes(), clientURI.getBatchConcurrency()).execute(batchStatements);
+        } catch (BatchUpdateException ex) {
+            throw ex;
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         } finally {
-            batchStatementBuilder = null;
-        }
-        int[] res = new int[statementsCount];
-        for (int i = 0; i < statementsCount; i++) {
-            res[i] = SUCCESS_NO_INFO;
+            batchStatements.clear();
         }
-        return res;
     }
 
+    /**
+     * Unwraps to the statement itself, for example as AsyncCassandraStatement.
+     */
     @Override
     public <T> T unwrap(final Class<T> iface) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Statement is not a wrapper for " + iface.getName());
     }
 
     @Override
-    public boolean isWrapperFor(final Class<?> iface) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
     }
 
     @Override
@@ -128,12 +371,20 @@ public abstract class CassandraBaseStatement implements Statement {
 
     @Override
     public int getMaxRows() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        return maxRows;
     }
 
+    /**
+     * The result sets stop after this number of rows, 0 for no limit. The default is set by the URL option <code>maxrows</code>.
+     */
     @Override
-    public void setMaxRows(int max) {
-        // todo
+    public void setMaxRows(int max) throws SQLException {
+        checkClosed();
+        if (max < 0) {
+            throw new SQLException("Max rows should be positive or 0.");
+        }
+        maxRows = max;
     }
 
     @Override
@@ -143,17 +394,39 @@ public abstract class CassandraBaseStatement implements Statement {
 
     @Override
     public int getQueryTimeout() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        return queryTimeout;
     }
 
+    /**
+     * Set the request timeout of the next executions, 0 to use the driver configured timeout.
+     * A request which exceeds it fails with SQLTimeoutException; the timeout applies to each page read by the result set.
+     */
     @Override
     public void setQueryTimeout(int seconds) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        if (seconds < 0) {
+            throw new SQLException("Query timeout should be positive or 0.");
+        }
+        queryTimeout = seconds;
     }
 
+    /**
+     * Abort the request in progress, and stop reading pages in the current result set. Can be called from another thread.
+     * The server is not notified, a query already running on the replicas completes there.
+     */
     @Override
     public void cancel() throws SQLException {
-        throw new SQLFeatureNotSupportedException("Cassandra provides no support for interrupting an operation.");
+        checkClosed();
+        cancelled = true;
+        final CompletableFuture<AsyncResultSet> future = running;
+        if (future != null) {
+            future.cancel(true);
+        }
+        final CassandraResultSet resultSet = result;
+        if (resultSet != null) {
+            resultSet.cancel();
+        }
     }
 
     @Override
@@ -183,13 +456,18 @@ public abstract class CassandraBaseStatement implements Statement {
     }
 
     @Override
-    public void setFetchSize(int rows) {
-        // todo
+    public void setFetchSize(int rows) throws SQLException {
+        checkClosed();
+        if (rows < 0) {
+            throw new SQLException("Fetch size should be positive or 0.");
+        }
+        fetchSize = rows;
     }
 
     @Override
     public int getFetchSize() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        return fetchSize;
     }
 
     @Override
@@ -204,7 +482,8 @@ public abstract class CassandraBaseStatement implements Statement {
 
     @Override
     public Connection getConnection() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        return connection;
     }
 
     @Override
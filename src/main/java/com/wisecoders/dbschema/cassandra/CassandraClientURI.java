@@ -3,6 +3,7 @@ package com.wisecoders.dbschema.cassandra;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.CqlSessionBuilder;
 import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListener;
 import com.instaclustr.cassandra.driver.auth.KerberosAuthProviderBase;
 import com.instaclustr.cassandra.driver.auth.ProgrammaticKerberosAuthProvider;
 import software.amazon.awssdk.utils.StringUtils;
@@ -15,8 +16,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -46,12 +49,23 @@ public class CassandraClientURI {
     private final String keyStore;
     private final String keyStorePassword;
     private final String configFile;
+    private final int preparedStatementCacheSize;
+    private final boolean shareSession;
+    private final int prefetchPages;
+    private final long prefetchMaxBytes;
+    private final int parallelScan;
+    private final BatchMode batchMode;
+    private final int batchMaxBytes;
+    private final int batchConcurrency;
+    private final int maxRows;
+    private final boolean metrics;
+    private final int slowQueryMillis;
 
     private final boolean useKerberos;
 
     public CassandraClientURI(String uri, Properties info) {
         this.uri = uri;
-        LOGGER.info("Use URI: " + maskAllPasswords(uri));
+        LOGGER.info(() -> "Use URI: " + maskAllPasswords(this.uri));
         if (!uri.startsWith(PREFIX)) {
             throw new IllegalArgumentException("URI needs to start with " + PREFIX);
         }
@@ -86,7 +100,7 @@ public class CassandraClientURI {
         if ( awsRegion == null || awsSecretName == null || awsSecretKey == null ) {
             this.password = getOption(info, options, "password");
         } else {
-            LOGGER.info("Use AWS password");
+            LOGGER.info(() -> "Use AWS password");
             this.password = AWSUtil.getSecretValue( awsRegion,  awsSecretName,  awsSecretKey);
         }
 
@@ -106,6 +120,18 @@ public class CassandraClientURI {
         this.keyStorePassword = keyStorePassword == null ? System.getProperty("javax.net.ssl.keyStorePassword") : keyStorePassword;
 
         this.configFile = getOption(info, options, "configfile");
+        this.preparedStatementCacheSize = getIntOption(info, options, "preparedstatementcachesize", PreparedStatementCache.DEFAULT_SIZE);
+        String shareSessionOption = getOption(info, options, "sharesession");
+        this.shareSession = Boolean.parseBoolean(shareSessionOption);
+        this.prefetchPages = getIntOption(info, options, "prefetchpages", 0);
+        this.prefetchMaxBytes = getLongOption(info, options, "prefetchmaxbytes", 64 * 1024 * 1024);
+        this.parallelScan = getIntOption(info, options, "parallelscan", 0);
+        this.batchMode = BatchMode.parse(getOption(info, options, "batchmode"));
+        this.batchMaxBytes = getIntOption(info, options, "batchmaxbytes", 5 * 1024);
+        this.batchConcurrency = getIntOption(info, options, "batchconcurrency", BatchExecutor.DEFAULT_CONCURRENCY);
+        this.maxRows = getIntOption(info, options, "maxrows", 0);
+        this.metrics = Boolean.parseBoolean(getOption(info, options, "metrics"));
+        this.slowQueryMillis = getIntOption(info, options, "slowquerymillis", 0);
 
         { // userName,password,hosts
             List<String> all = new LinkedList<>();
@@ -126,7 +152,7 @@ public class CassandraClientURI {
                 collection = nsPart.substring(dotIndex + 1);
             }
         }
-        LOGGER.info("Init hosts=" + hosts + " keyspace=" + keyspace + " collection=" + collection + " user=" + userName + " dc=" + dataCenter + " sslenabled=" + sslEnabledOption );
+        LOGGER.info(() -> "Init hosts=" + hosts + " keyspace=" + keyspace + " collection=" + collection + " user=" + userName + " dc=" + dataCenter + " sslenabled=" + sslEnabledOption );
 
     }
 
@@ -158,8 +184,65 @@ public class CassandraClientURI {
         return getLastValue(options, optionName);
     }
 
-    CqlSession createCqlSession() throws IOException, GeneralSecurityException {
+    /**
+     * Key used to share sessions between connections. Two URIs get the same key only if they connect with the same
+     * hosts, keyspace, data center, credentials, SSL and configuration settings. Passwords are included as digest.
+     */
+    String getSessionKey() throws GeneralSecurityException {
+        final List<String> sortedHosts = new ArrayList<>();
+        for (String host : hosts) {
+            sortedHosts.add(host.trim().toLowerCase(Locale.ENGLISH));
+        }
+        Collections.sort(sortedHosts);
+        return String.join(",", sortedHosts) +
+                "|" + keyspace +
+                "|" + dataCenter +
+                "|" + userName +
+                "|" + digest(password) +
+                "|" + sslEnabled +
+                "|" + trustStore + "|" + digest(trustStorePassword) +
+                "|" + keyStore + "|" + digest(keyStorePassword) +
+                "|" + configFile +
+                "|" + useKerberos +
+                "|" + metrics;
+    }
+
+    private static String digest(String value) throws GeneralSecurityException {
+        if (value == null) return null;
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8))) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private int getIntOption(Properties properties, Map<String, List<String>> options, String optionName, int defaultValue) {
+        String option = getOption(properties, options, optionName);
+        if (option == null || option.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(option.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Option " + optionName + " should be a number, but is '" + option + "'");
+        }
+    }
+
+    private long getLongOption(Properties properties, Map<String, List<String>> options, String optionName, long defaultValue) {
+        String option = getOption(properties, options, optionName);
+        if (option == null || option.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(option.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Option " + optionName + " should be a number, but is '" + option + "'");
+        }
+    }
+
+    CqlSession createCqlSession(SchemaChangeListener schemaChangeListener) throws IOException, GeneralSecurityException {
         CqlSessionBuilder builder = CqlSession.builder();
+        builder.addSchemaChangeListener(schemaChangeListener);
         int port = 9042;
         for ( String host : hosts ){
             int idx = host.indexOf(":");
@@ -167,19 +250,21 @@ public class CassandraClientURI {
                 port = Integer.parseInt( host.substring( idx +1).trim() );
                 host = host.substring( 0, idx ).trim();
             }
-            LOGGER.info("Builder Contact Point: " + host + ":" + port );
-            builder.addContactPoint( new InetSocketAddress( host, port ) );
+            final InetSocketAddress contactPoint = new InetSocketAddress( host, port );
+            LOGGER.info(() -> "Builder Contact Point: " + contactPoint.getHostString() + ":" + contactPoint.getPort() );
+            builder.addContactPoint( contactPoint );
             if (sslEnabled) {
-                LOGGER.info("Builder SslContext: " + getSslContext());
-                builder.withSslContext(getSslContext());
+                final SSLContext sslContext = getSslContext();
+                LOGGER.info(() -> "Builder SslContext: " + sslContext);
+                builder.withSslContext(sslContext);
             }
             if (getConfigFile() != null) {
-                LOGGER.info("Builder Config File: " + getConfigFile());
+                LOGGER.info(() -> "Builder Config File: " + getConfigFile());
                 File file = new File(this.getConfigFile());
                 builder.withConfigLoader(DriverConfigLoader.fromFile(file));
             }
         }
-        LOGGER.info("Builder Datacenter: " + ( dataCenter != null ? dataCenter : "datacenter1" ));
+        LOGGER.info(() -> "Builder Datacenter: " + ( dataCenter != null ? dataCenter : "datacenter1" ));
         builder.withLocalDatacenter( dataCenter != null ? dataCenter : "datacenter1" );
         if ( useKerberos ){
             builder.withAuthProvider(new ProgrammaticKerberosAuthProvider(
@@ -187,14 +272,14 @@ public class CassandraClientURI {
             ));
         }
         if ( keyspace != null ) {
-            LOGGER.info( "Builder Keyspace: " + keyspace );
+            LOGGER.info(() -> "Builder Keyspace: " + keyspace );
             builder.withKeyspace( keyspace);
         }
         if ( userName != null && !userName.isEmpty() && password != null ) {
-            LOGGER.info("Builder Authentication user: " + userName );
+            LOGGER.info(() -> "Builder Authentication user: " + userName );
             builder.withAuthCredentials( userName, password );
         }
-        return builder.build();
+        return AsyncPageIterator.await(builder.buildAsync());
     }
 
 
@@ -367,4 +452,103 @@ public class CassandraClientURI {
     public String getConfigFile() {
         return configFile;
     }
+
+    /**
+     * Gets the maximal number of prepared statements cached by each connection.
+     *
+     * @return the prepared statement cache size, 0 if the cache is disabled
+     */
+    public int getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    /**
+     * Gets the share session property
+     *
+     * @return true if connections with the same URI and credentials share one session
+     */
+    public boolean getShareSession() {
+        return shareSession;
+    }
+
+    /**
+     * Gets the number of pages the result sets read ahead
+     *
+     * @return the number of pages, 0 if the pages are read only when needed
+     */
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Gets the maximal size of the pages read ahead by one result set
+     *
+     * @return the size in bytes
+     */
+    public long getPrefetchMaxBytes() {
+        return prefetchMaxBytes;
+    }
+
+    /**
+     * Gets the number of token ranges read in parallel by full table scans
+     *
+     * @return the parallelism, 0 if the full table scans are executed as a single query
+     */
+    public int getParallelScan() {
+        return parallelScan;
+    }
+
+    /**
+     * Gets how the statements added with addBatch() are executed
+     *
+     * @return the batch mode, LOGGED by default
+     */
+    public BatchMode getBatchMode() {
+        return batchMode;
+    }
+
+    /**
+     * Gets the maximal size of the UNLOGGED batches
+     *
+     * @return the size in bytes, 0 for no limit
+     */
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    /**
+     * Gets the maximal number of batches or statements executed in parallel by executeBatch()
+     *
+     * @return the number of requests in flight
+     */
+    public int getBatchConcurrency() {
+        return batchConcurrency;
+    }
+
+    /**
+     * Gets the default maximal number of rows returned by the result sets of the statements
+     *
+     * @return the number of rows, 0 for no limit
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Gets the metrics property
+     *
+     * @return true if the statement latencies are recorded and published as MXBean
+     */
+    public boolean getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the slowquerymillis property
+     *
+     * @return the execution and result reading time from which the statements are logged, 0 to not log them
+     */
+    public int getSlowQueryMillis() {
+        return slowQueryMillis;
+    }
 }
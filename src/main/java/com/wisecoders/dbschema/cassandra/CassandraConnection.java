@@ -10,6 +10,7 @@ import java.sql.*;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,15 +21,22 @@ import java.util.regex.Pattern;
 
 public class CassandraConnection implements Connection {
 
+    private final SharedSession sharedSession;
     private final CqlSession session;
     private final JdbcDriver driver;
+    private final CassandraClientURI clientURI;
+    private final PreparedStatementCache preparedStatementCache;
     private final boolean returnNullStringsFromIntroQuery;
-    private boolean isClosed = false;
+    private final AtomicBoolean isClosed = new AtomicBoolean();
     private boolean isReadOnly = false;
 
-    CassandraConnection(CqlSession session, JdbcDriver jdbcDriver, boolean returnNullStringsFromIntroQuery) {
-        this.session = session;
+    CassandraConnection(SharedSession sharedSession, JdbcDriver jdbcDriver, CassandraClientURI clientURI, boolean returnNullStringsFromIntroQuery) {
+        this.sharedSession = sharedSession;
+        this.session = sharedSession.getSession();
         driver = jdbcDriver;
+        this.clientURI = clientURI;
+        this.preparedStatementCache = new PreparedStatementCache(clientURI.getPreparedStatementCacheSize());
+        sharedSession.getSchemaChangeDispatcher().addListener(preparedStatementCache);
         this.returnNullStringsFromIntroQuery = returnNullStringsFromIntroQuery;
     }
 
@@ -75,6 +83,34 @@ public class CassandraConnection implements Connection {
         return session;
     }
 
+    CassandraClientURI getClientURI() {
+        return clientURI;
+    }
+
+    StatementMetrics getMetrics() {
+        return sharedSession.getStatementMetrics();
+    }
+
+    SchemaSnapshot getSchemaSnapshot() {
+        return sharedSession.getSchemaSnapshotCache().get();
+    }
+
+    /**
+     * The cache of prepared statements used by prepareStatement(), exposing the hit, miss and eviction counters.
+     */
+    public PreparedStatementCache getPreparedStatementCache() {
+        return preparedStatementCache;
+    }
+
+    /**
+     * The latency histograms and counters of the statements executed using the session of this connection, also published as MXBean.
+     *
+     * @return the metrics, null if not enabled by the URL option <code>metrics=true</code>
+     */
+    public StatementMetricsMXBean getStatementMetrics() {
+        return getMetrics();
+    }
+
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
         checkClosed();
@@ -113,7 +149,7 @@ public class CassandraConnection implements Connection {
     public PreparedStatement prepareStatement(String sql) throws SQLException {
         checkClosed();
         try {
-            return new CassandraPreparedStatement(session, session.prepare(sql), returnNullStringsFromIntroQuery || !SELECT_COLUMNS_INTRO_QUERY.equals(sql));
+            return new CassandraPreparedStatement(this, preparedStatementCache.prepare(session, sql), returnNullStringsFromIntroQuery || !SELECT_COLUMNS_INTRO_QUERY.equals(sql));
         } catch ( SyntaxError error ) {
             ResultSet rs = executeDescribeCommand( sql );
             if ( rs != null ){
@@ -157,14 +193,22 @@ public class CassandraConnection implements Connection {
         checkClosed();
     }
 
+    /**
+     * Release this connection's reference to the session. The session is closed when no other connection uses it.
+     */
     @Override
     public void close() {
-        isClosed = true;
+        // the session is released once, also if closed by several threads
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
+        sharedSession.getSchemaChangeDispatcher().removeListener(preparedStatementCache);
+        SessionRegistry.release(sharedSession);
     }
 
     @Override
     public boolean isClosed() {
-        return isClosed;
+        return isClosed.get();
     }
 
     @Override
@@ -360,7 +404,7 @@ public class CassandraConnection implements Connection {
 
 
     private void checkClosed() throws SQLException {
-        if (isClosed) {
+        if (isClosed.get()) {
             throw new SQLException("Statement was previously closed.");
         }
     }
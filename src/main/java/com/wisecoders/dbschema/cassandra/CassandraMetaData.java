@@ -1,17 +1,14 @@
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.CqlIdentifier;
-import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
-import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
-import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.wisecoders.dbschema.cassandra.types.ArrayResultSet;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
-import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
 /**
  * A Cassandra database is used as a catalogs by this driver. Schemas aren't used. A Cassandra collection is equivalent to a tables, in that each collection is a table.
  *
@@ -40,51 +37,19 @@ public class CassandraMetaData implements DatabaseMetaData {
     @Override
     public ResultSet getCatalogs()
     {
-        final List<String> loadedKeyspaces = new ArrayList<>();
-        final ArrayResultSet retVal = new ArrayResultSet();
-        retVal.setColumnNames(new String[]{"TABLE_CAT"});
-        for ( CqlIdentifier identifier : connection.getSession().getMetadata().getKeyspaces().keySet() ){
-            retVal.addRow(new String[] { identifier.toString() });
-            loadedKeyspaces.add( identifier.toString());
-        }
-        try ( ResultSet rs = connection.prepareStatement("SELECT keyspace_name FROM system_schema.keyspaces").executeQuery() ){
-            while( rs.next() ) {
-                if ( !loadedKeyspaces.contains( rs.getString(1 ))) {
-                    retVal.addRow(new String[]{rs.getString(1)});
-                    loadedKeyspaces.add( rs.getString(1 ));
-                }
-            }
-        } catch ( SQLException ex ){ LOGGER.warning( "Error loading keyspaces using query 'SELECT keyspace_name FROM system_schema.keyspaces': " + ex );}
-        return retVal;
+        return result(SchemaSnapshot.CATALOG_COLUMNS, connection.getSchemaSnapshot().getCatalogRows());
     }
 
+    /**
+     * Only tables are listed. The patterns may use the wildcards <code>%</code> and <code>_</code>, escaped by getSearchStringEscape().
+     *
+     * @see java.sql.DatabaseMetaData#getTables(java.lang.String, java.lang.String, java.lang.String, java.lang.String[])
+     */
     public ResultSet getTables(String catalogName, String schemaPattern, String tableNamePattern, String[] types) {
-        ArrayResultSet resultSet = new ArrayResultSet();
-        resultSet.setColumnNames(new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME",
-                "TABLE_TYPE", "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "SELF_REFERENCING_COL_NAME",
-                "REF_GENERATION"});
-
-        this.connection.getSession().getMetadata().getKeyspace(catalogName).ifPresent( metadata -> {
-            for (Map.Entry<CqlIdentifier, TableMetadata> entry: metadata.getTables().entrySet()){
-                CqlIdentifier cqlIdentifier = entry.getKey();
-
-                String[] data = new String[10];
-                data[0] = catalogName; // TABLE_CAT
-                data[1] = ""; // TABLE_SCHEM
-                data[2] = cqlIdentifier.toString(); // TABLE_NAME
-                data[3] = "TABLE"; // TABLE_TYPE
-                data[4] = null; // REMARKS
-                data[5] = ""; // TYPE_CAT
-                data[6] = ""; // TYPE_SCHEM
-                data[7] = ""; // TYPE_NAME
-                data[8] = ""; // SELF_REFERENCING_COL_NAME
-                data[9] = ""; // REF_GENERATION
-
-                resultSet.addRow( data );
-            }
-        });
-
-        return resultSet;
+        if (types != null && !Arrays.asList(types).contains("TABLE")) {
+            return result(SchemaSnapshot.TABLE_COLUMNS, Collections.emptyList());
+        }
+        return result(SchemaSnapshot.TABLE_COLUMNS, connection.getSchemaSnapshot().getTableRows(catalogName, LikePattern.compile(tableNamePattern)));
     }
 
 
@@ -92,109 +57,15 @@ public class CassandraMetaData implements DatabaseMetaData {
      * @see java.sql.DatabaseMetaData#getColumns(java.lang.String, java.lang.String, java.lang.String, java.lang.String)
      */
     public ResultSet getColumns(String catalogName, String schemaName, String tableNamePattern, String columnNamePattern) {
-
-        final ArrayResultSet result = new ArrayResultSet();
-        result.setColumnNames(new String[] { "TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "COLUMN_NAME",
-                "DATA_TYPE", "TYPE_NAME", "COLUMN_SIZE", "BUFFER_LENGTH", "DECIMAL_DIGITS", "NUM_PREC_RADIX",
-                "NULLABLE", "REMARKS", "COLUMN_DEF", "SQL_DATA_TYPE", "SQL_DATETIME_SUB", "CHAR_OCTET_LENGTH",
-                "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA", "SCOPE_TABLE",
-                "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "OPTIONS" });
-
-        connection.getSession().getMetadata().getKeyspace( catalogName ).ifPresent( metadata -> {
-            if ( tableNamePattern == null ){
-                for ( TableMetadata tableMetadata : metadata.getTables().values() ){
-                    for ( ColumnMetadata field : tableMetadata.getColumns().values() ){
-                        if ( columnNamePattern == null || columnNamePattern.equals( String.valueOf( field ))){
-                            exportColumnsRecursive( tableMetadata, result, field);
-                        }
-                    }
-                }
-            } else {
-                metadata.getTable( tableNamePattern ).ifPresent( tableMetadata -> {
-                    for (ColumnMetadata field : tableMetadata.getColumns().values() ) {
-                        if (columnNamePattern == null || columnNamePattern.equals(String.valueOf( field ))) {
-                            exportColumnsRecursive(tableMetadata, result, field);
-                        }
-                    }
-                } );
-            }
-        } );
-        return result;
-    }
-
-    private void exportColumnsRecursive( TableMetadata tableMetadata, ArrayResultSet result, ColumnMetadata columnMetadata) {
-        StringBuilder sb = new StringBuilder();
-        /*
-        TableOptionsMetadata options = tableMetadata.getOptions();
-        if( options != null ){
-            sb.append("bloom_filter_fp_chance = " ).append(options.getBloomFilterFalsePositiveChance() ).
-                    append("\n AND caching = '").append( options.getCaching()).append("'").
-                    append("\n  AND comment = '").append( options.getComment()).append("'").
-                    append("\n  AND compaction = ").append( options.getCompaction()).
-                    append("\n  AND compression = ").append( options.getCompression()).
-                    append("\n  AND dclocal_read_repair_chance = " ).append(options.getLocalReadRepairChance() ).
-                    append("\n  AND default_time_to_live = " ).append(options.getDefaultTimeToLive() ).
-                    append("\n  AND gc_grace_seconds = " ).append(options.getGcGraceInSeconds() ).
-                    append("\n  AND max_index_interval = " ).append(options.getMaxIndexInterval() ).
-                    append("\n  AND memtable_flush_period_in_ms = " ).append(options.getMemtableFlushPeriodInMs() ).
-                    append("\n  AND min_index_interval = " ).append(options.getMinIndexInterval() ).
-                    append("\n  AND read_repair_chance = " ).append(options.getReadRepairChance() ).
-                    append("\n  AND speculative_retry = '").append(options.getSpeculativeRetry() ).append("'");
-        }*/
-
-        result.addRow(new String[] {
-                String.valueOf(tableMetadata.getKeyspace()), // "TABLE_CAT",
-                null, // "TABLE_SCHEMA",
-                String.valueOf( tableMetadata ), // "TABLE_NAME", (i.e. Cassandra Collection Name)
-                String.valueOf( columnMetadata ), // "COLUMN_NAME",
-                "" + columnMetadata.getType(), // "DATA_TYPE",
-                "" + columnMetadata.getType(), // "TYPE_NAME", -- I LET THIS INTENTIONALLY TO USE .toString() BECAUSE OF USER DEFINED TYPES.
-                "800", // "COLUMN_SIZE",
-                "0", // "BUFFER_LENGTH", (not used)
-                "0", // "DECIMAL_DIGITS",
-                "10", // "NUM_PREC_RADIX",
-                "0", // "NULLABLE", // I RETREIVE HERE IF IS FROZEN ( MANDATORY ) OR NOT ( NULLABLE )
-                "", // "REMARKS",
-                "", // "COLUMN_DEF",
-                "0", // "SQL_DATA_TYPE", (not used)
-                "0", // "SQL_DATETIME_SUB", (not used)
-                "800", // "CHAR_OCTET_LENGTH",
-                "1", // "ORDINAL_POSITION",
-                "NO", // "IS_NULLABLE",
-                null, // "SCOPE_CATLOG", (not a REF type)
-                null, // "SCOPE_SCHEMA", (not a REF type)
-                null, // "SCOPE_TABLE", (not a REF type)
-                null, // "SOURCE_DATA_TYPE", (not a DISTINCT or REF type)
-                "NO", // "IS_AUTOINCREMENT" (can be auto-generated, but can also be specified)
-                sb.toString() // TABLE_OPTIONS
-        });
+        return result(SchemaSnapshot.COLUMN_COLUMNS, connection.getSchemaSnapshot().getColumnRows(catalogName,
+                LikePattern.compile(tableNamePattern), LikePattern.compile(columnNamePattern)));
     }
 
-
     /**
      * @see java.sql.DatabaseMetaData#getPrimaryKeys(java.lang.String, java.lang.String, java.lang.String)
      */
     public ResultSet getPrimaryKeys(String catalogName, String schemaName, String tableNamePattern) {
-
-        final ArrayResultSet result = new ArrayResultSet();
-        result.setColumnNames(new String[] { "TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "COLUMN_NAME", "KEY_SEQ", "PK_NAME" });
-
-        connection.getSession().getMetadata().getKeyspace( catalogName ).ifPresent( keyspaceMetadata -> {
-            keyspaceMetadata.getTable( tableNamePattern ).ifPresent( tableMetadata -> {
-                int seq = 0;
-                for ( ColumnMetadata columnMetadata : tableMetadata.getPrimaryKey() ){
-                    result.addRow(new String[]{
-                            String.valueOf( keyspaceMetadata), // "TABLE_CAT",
-                            null, // "TABLE_SCHEMA",
-                            String.valueOf( tableMetadata), // "TABLE_NAME", (i.e. Cassandra Collection Name)
-                            String.valueOf(columnMetadata), // "COLUMN_NAME",
-                            "" + seq++, // "ORDINAL_POSITION"
-                            "PRIMARY KEY" // "PK_NAME"
-                    });
-                }
-            });
-        });
-        return result;
+        return result(SchemaSnapshot.PRIMARY_KEY_COLUMNS, connection.getSchemaSnapshot().getPrimaryKeyRows(catalogName, tableNamePattern));
     }
 
     /**
@@ -202,33 +73,13 @@ public class CassandraMetaData implements DatabaseMetaData {
      *      boolean, boolean)
      */
     public ResultSet getIndexInfo(String catalogName, String schemaName, String tableNamePattern, boolean unique,  boolean approximate) {
+        return result(SchemaSnapshot.INDEX_COLUMNS, connection.getSchemaSnapshot().getIndexRows(catalogName, tableNamePattern));
+    }
+
+    private static ArrayResultSet result(String[] columnNames, List<String[]> rows) {
         final ArrayResultSet result = new ArrayResultSet();
-        result.setColumnNames(new String[]{"TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "NON_UNIQUE",
-                "INDEX_QUALIFIER", "INDEX_NAME", "TYPE", "ORDINAL_POSITION", "COLUMN_NAME", "ASC_OR_DESC",
-                "CARDINALITY", "PAGES", "FILTER_CONDITION"});
-
-        connection.getSession().getMetadata().getKeyspace( catalogName ).ifPresent( keyspaceMetadata -> {
-            keyspaceMetadata.getTable( tableNamePattern ).ifPresent( tableMetadata -> {
-                int seq = 0;
-                for ( Map.Entry<ColumnMetadata, ClusteringOrder> entry : tableMetadata.getClusteringColumns().entrySet() ) {
-                    result.addRow(new String[]{
-                            String.valueOf(keyspaceMetadata), // "TABLE_CAT",
-                            null, // "TABLE_SCHEMA",
-                            String.valueOf( tableMetadata.getName() ), // "TABLE_NAME", (i.e. Cassandra Collection Name)
-                            "FALSE", // "NON-UNIQUE",
-                            String.valueOf( entry.getKey().getName()), // "INDEX QUALIFIER",
-                            "CLUSTER KEY", // "INDEX_NAME",
-                            "0", // "TYPE",
-                            "" + seq++ , // "ORDINAL_POSITION"
-                            String.valueOf( entry.getKey().getName() ), // "COLUMN_NAME",
-                            entry.getValue() == ClusteringOrder.ASC ? "A" : "D", // "ASC_OR_DESC",
-                            "0", // "CARDINALITY",
-                            "0", // "PAGES",
-                            "" // "FILTER_CONDITION",
-                    });
-                }
-            });
-        });
+        result.setColumnNames(columnNames);
+        result.addRows(rows);
         return result;
     }
 
@@ -305,7 +156,7 @@ public class CassandraMetaData implements DatabaseMetaData {
     }
 
     public String getDatabaseProductVersion() {
-        com.datastax.oss.driver.api.core.cql.ResultSet result = connection.getSession().execute("select release_version from system.local");
+        final AsyncResultSet result = AsyncPageIterator.await(connection.getSession().executeAsync("select release_version from system.local"));
         return result.one().getString(0);
     }
 
@@ -390,7 +241,7 @@ public class CassandraMetaData implements DatabaseMetaData {
     }
 
     public String getSearchStringEscape() {
-        return null;
+        return LikePattern.ESCAPE;
     }
 
     public String getExtraNameCharacters() {
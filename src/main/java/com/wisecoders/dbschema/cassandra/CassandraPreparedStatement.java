@@ -1,19 +1,26 @@
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.api.core.cql.BatchStatement;
-import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.sql.*;
-import java.util.Arrays;
 import java.util.Calendar;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 import static com.wisecoders.dbschema.cassandra.DateUtil.considerTimeZone;
 
@@ -22,21 +29,65 @@ import static com.wisecoders.dbschema.cassandra.DateUtil.considerTimeZone;
  * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
  */
 
-public class CassandraPreparedStatement extends CassandraBaseStatement implements java.sql.PreparedStatement {
+public class CassandraPreparedStatement extends CassandraBaseStatement implements java.sql.PreparedStatement, AsyncCassandraPreparedStatement {
 
     private final PreparedStatement preparedStatement;
     private final boolean returnNullStrings;
-    private Object[] params;
-
-    CassandraPreparedStatement(CqlSession session, final PreparedStatement preparedStatement, boolean returnNullStrings) {
-        super(session);
+    // protocol codes of the variable types, and the codec last used by setObject() for each variable, resolved on first use
+    private int[] variableTypes;
+    private TypeCodec<Object>[] objectCodecs;
+    // values of the next bound statement, null if no parameter was set
+    private BoundStatementBuilder parameters;
+
+    CassandraPreparedStatement(CassandraConnection connection, final PreparedStatement preparedStatement, boolean returnNullStrings) {
+        super(connection);
         this.preparedStatement = preparedStatement;
         this.returnNullStrings = returnNullStrings;
     }
 
     @Override
-    public ResultSet executeQuery() {
-        return new CassandraResultSet(this, session.execute(bindParameters()), returnNullStrings);
+    public ResultSet executeQuery() throws SQLException {
+        checkClosed();
+        try {
+            result = executeStatement(applyOptions(bindParameters()), returnNullStrings);
+            return result;
+        } catch (SyntaxError ex) {
+            throw new SQLSyntaxErrorException(ex.getMessage(), ex);
+        } catch (DriverTimeoutException ex) {
+            throw new SQLTimeoutException(ex.getMessage(), ex);
+        } catch (Throwable t) {
+            throw new SQLException(t.getMessage(), t);
+        }
+    }
+
+    @Override
+    public CompletionStage<ResultSet> executeQueryAsync() {
+        try {
+            checkClosed();
+            return executeStatementAsync(applyOptions(bindParameters()), returnNullStrings).thenApply(ResultSet.class::cast);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(toSQLException(t));
+        }
+    }
+
+    @Override
+    public Flow.Publisher<Row> publishQuery() {
+        try {
+            checkClosed();
+            return publishStatement(applyOptions(bindParameters()));
+        } catch (Throwable t) {
+            return new RowPublisher(() -> CompletableFuture.failedFuture(t));
+        }
+    }
+
+    @Override
+    public CompletionStage<Integer> executeUpdateAsync() {
+        try {
+            checkClosed();
+            return executeStatementAsync(applyOptions(bindParameters()), returnNullStrings).thenApply(CassandraBaseStatement::toUpdateCount);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(toSQLException(t));
+        }
     }
 
     @Override
@@ -50,13 +101,60 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     }
 
     @Override
-    public void setObject(int parameterIndex, Object value) {
-        if (params == null) {
-            int size = preparedStatement.getVariableDefinitions().size();
-            params = new Object[size];
+    public void setObject(int parameterIndex, Object value) throws SQLException {
+        final BoundStatementBuilder builder = parameters();
+        final int idx = variableIndex(parameterIndex);
+        if (value == null) {
+            builder.setToNull(idx);
+            return;
+        }
+        try {
+            TypeCodec<Object> codec = objectCodecs[idx];
+            if (codec == null || !codec.accepts(value)) {
+                codec = objectCodecs[idx] = builder.codecRegistry().codecFor(builder.getType(idx), value);
+            }
+            builder.set(idx, value, codec);
+        } catch (RuntimeException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * The values are collected in a BoundStatementBuilder, created for each bound statement because the built statement shares its values.
+     */
+    @SuppressWarnings("unchecked")
+    private BoundStatementBuilder parameters() {
+        if (variableTypes == null) {
+            final ColumnDefinitions variables = preparedStatement.getVariableDefinitions();
+            variableTypes = new int[variables.size()];
+            for (int i = 0; i < variableTypes.length; i++) {
+                variableTypes[i] = variables.get(i).getType().getProtocolCode();
+            }
+            objectCodecs = (TypeCodec<Object>[]) new TypeCodec<?>[variableTypes.length];
         }
-        int idx = parameterIndex - 1;
-        params[idx] = value;
+        if (parameters == null) {
+            parameters = preparedStatement.boundStatementBuilder();
+        }
+        return parameters;
+    }
+
+    private int variableIndex(int parameterIndex) throws SQLException {
+        if (parameterIndex < 1 || parameterIndex > variableTypes.length) {
+            throw new SQLException("Parameter index " + parameterIndex + " out of range, the statement has " + variableTypes.length + " parameters");
+        }
+        return parameterIndex - 1;
+    }
+
+    /**
+     * Bind a value encoded with the codec of the variable type, without looking up the codec in the registry.
+     */
+    private void setEncoded(int parameterIndex, ByteBuffer value) throws SQLException {
+        parameters.setBytesUnsafe(variableIndex(parameterIndex), value);
+    }
+
+    private int variableType(int parameterIndex) throws SQLException {
+        parameters();
+        return variableTypes[variableIndex(parameterIndex)];
     }
 
     @Override
@@ -65,21 +163,23 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     }
 
     @Override
-    public void clearBatch() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+    public void clearBatch() {
+        batchStatements.clear();
     }
 
     @Override
     public int executeUpdate() throws SQLException {
         checkClosed();
         try {
-            result = new CassandraResultSet(this, session.execute(bindParameters()), returnNullStrings);
+            result = executeStatement(applyOptions(bindParameters()), returnNullStrings);
             if (result.isQuery()) {
                 throw new SQLException("Not an update statement");
             }
             return 1;
         } catch (SyntaxError ex) {
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
+        } catch (DriverTimeoutException ex) {
+            throw new SQLTimeoutException(ex.getMessage(), ex);
         } catch (Throwable t) {
             throw new SQLException(t.getLocalizedMessage(), t);
         }
@@ -136,49 +236,98 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     }
 
     @Override
-    public void setNull(int parameterIndex, int sqlType) {
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        checkClosed();
+        setObject(parameterIndex, null);
     }
 
     @Override
     public void setBoolean(int parameterIndex, boolean x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.BOOLEAN:
+                setEncoded(parameterIndex, TypeCodecs.BOOLEAN.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setByte(int parameterIndex, byte x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.TINYINT:
+                setEncoded(parameterIndex, TypeCodecs.TINYINT.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setShort(int parameterIndex, short x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.SMALLINT:
+                setEncoded(parameterIndex, TypeCodecs.SMALLINT.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setInt(int parameterIndex, int x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.INT:
+                setEncoded(parameterIndex, TypeCodecs.INT.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            case ProtocolConstants.DataType.BIGINT:
+            case ProtocolConstants.DataType.COUNTER:
+                setEncoded(parameterIndex, TypeCodecs.BIGINT.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setLong(int parameterIndex, long x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.BIGINT:
+            case ProtocolConstants.DataType.COUNTER:
+                setEncoded(parameterIndex, TypeCodecs.BIGINT.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setFloat(int parameterIndex, float x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.FLOAT:
+                setEncoded(parameterIndex, TypeCodecs.FLOAT.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
     public void setDouble(int parameterIndex, double x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.DOUBLE:
+                setEncoded(parameterIndex, TypeCodecs.DOUBLE.encodePrimitive(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
@@ -190,7 +339,16 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     @Override
     public void setString(int parameterIndex, String x) throws SQLException {
         checkClosed();
-        setObject(parameterIndex, x);
+        switch (variableType(parameterIndex)) {
+            case ProtocolConstants.DataType.VARCHAR:
+                setEncoded(parameterIndex, TypeCodecs.TEXT.encode(x, parameters.protocolVersion()));
+                break;
+            case ProtocolConstants.DataType.ASCII:
+                setEncoded(parameterIndex, TypeCodecs.ASCII.encode(x, parameters.protocolVersion()));
+                break;
+            default:
+                setObject(parameterIndex, x);
+        }
     }
 
     @Override
@@ -250,32 +408,37 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     public boolean execute() throws SQLException {
         checkClosed();
         try {
-            return executeInner(session.execute(bindParameters()), returnNullStrings);
+            return executeInner(applyOptions(bindParameters()), returnNullStrings);
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         }
     }
 
+    /**
+     * Like bind(Object...), the parameters which were not set are bound to null, unless no parameter was set.
+     */
     private BoundStatement bindParameters() {
-        try {
-            return preparedStatement.bind(params == null ? new Object[]{} : params);
-        } finally {
-            clearParams();
+        final BoundStatementBuilder builder = parameters;
+        if (builder == null) {
+            return preparedStatement.bind();
+        }
+        parameters = null;
+        for (int i = 0; i < variableTypes.length; i++) {
+            if (!builder.isSet(i)) {
+                builder.setToNull(i);
+            }
         }
+        return builder.build();
     }
 
     private void clearParams() {
-        if (params == null) return;
-        Arrays.fill(params, null);
+        parameters = null;
     }
 
     @Override
     public void addBatch() throws SQLException {
         try {
-            if (batchStatementBuilder == null) {
-                batchStatementBuilder = BatchStatement.builder(BatchType.LOGGED);
-            }
-            batchStatementBuilder.addStatement(preparedStatement.bind(params == null ? new Object[]{} : params));
+            batchStatements.add(bindParameters());
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         } finally {
@@ -311,7 +474,9 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public ResultSetMetaData getMetaData() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        final ColumnDefinitions columnDefinitions = preparedStatement.getResultSetDefinitions();
+        return columnDefinitions.size() == 0 ? null : getResultSetMetaData(columnDefinitions);
     }
 
     @Override
@@ -392,7 +557,7 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     }
 
     @Override
-    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) {
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
         setObject(parameterIndex, x);
     }
 
@@ -1,10 +1,13 @@
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
 import com.datastax.oss.driver.api.core.cql.Row;
-import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.wisecoders.dbschema.cassandra.types.ArrayImpl;
 import com.wisecoders.dbschema.cassandra.types.BlobImpl;
+import com.wisecoders.dbschema.cassandra.types.ByteBufferInputStream;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -19,6 +22,10 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 import static com.wisecoders.dbschema.cassandra.DateUtil.considerTimeZone;
 
@@ -31,49 +38,114 @@ public class CassandraResultSet implements ResultSet {
 
     private boolean isClosed = false;
 
-    private final Statement statement;
-    private final com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet;
-    private final Iterator<Row> iterator;
+    private final CassandraBaseStatement statement;
+    private final RowSource pages;
+    private final ColumnDefinitions columnDefinitions;
+    private final Map<String, Integer> columnIndexes;
+    private final Map<String, Integer> lowerCaseColumnIndexes;
+    private CassandraResultSetMetaData metaData;
     private final boolean returnNullStrings;
     private Row currentRow;
-
-    CassandraResultSet(Statement statement, com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet, boolean returnNullStrings) {
+    private int fetchSize = 0;
+    private final int maxRows;
+    private int rowCount = 0;
+    private volatile boolean cancelled = false;
+
+    /**
+     * Result set reading the pages asynchronously, ahead of the current page or from multiple token ranges in parallel.
+     * The page size is set by the statement fetch size, and can be changed for the next pages using setFetchSize().
+     */
+    CassandraResultSet(CassandraBaseStatement statement, RowSource pages, boolean returnNullStrings) {
         this.statement = statement;
-        this.dsResultSet = dsResultSet;
-        this.iterator = dsResultSet.iterator();
+        this.pages = pages;
+        this.columnDefinitions = pages.getColumnDefinitions();
         this.returnNullStrings = returnNullStrings;
-    }
-
-    CassandraResultSet(Statement statement, com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet) {
-        this(statement, dsResultSet, true);
+        this.maxRows = statement.maxRows;
+        this.columnIndexes = indexColumns(columnDefinitions, false);
+        this.lowerCaseColumnIndexes = indexColumns(columnDefinitions, true);
     }
 
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Result set is not a wrapper for " + iface.getName());
     }
 
     @Override
-    public boolean isWrapperFor(Class<?> iface) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Completes when next() can be called without blocking, after requesting the next page if the current one is consumed.
+     * Used with the non-blocking execution of AsyncCassandraStatement, to continue reading in the callback.
+     */
+    public CompletionStage<Void> fetchAsync() {
+        return pages.ready();
+    }
+
+    /**
+     * Publishes the rows not yet read with next(), requesting the next pages as the subscriber demand arrives.
+     * The result set should not be read with next() while subscribed; the statement max rows is not applied to the published rows.
+     */
+    public Flow.Publisher<Row> getRowPublisher() throws SQLException {
+        return new RowPublisher(() -> CompletableFuture.completedFuture(pages));
     }
 
+    /**
+     * Returns false after the statement max rows, without reading the next pages.
+     */
     @Override
-    public boolean next() {
-        if (iterator.hasNext()) {
-            currentRow = iterator.next();
-            return true;
+    public boolean next() throws SQLException {
+        checkClosed();
+        if (cancelled) {
+            throw new SQLException("Statement was cancelled.");
         }
+        if (maxRows > 0 && rowCount >= maxRows) {
+            pages.close();
+            currentRow = null;
+            return false;
+        }
+        try {
+            if (pages.hasNext()) {
+                currentRow = pages.next();
+                rowCount++;
+                return true;
+            }
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof DriverTimeoutException) {
+                throw new SQLTimeoutException(ex.getCause().getMessage(), ex.getCause());
+            }
+            throw new SQLException(ex.getCause().getMessage(), ex.getCause());
+        } catch (RuntimeException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+        currentRow = null;
         return false;
     }
 
+    /**
+     * Stop reading pages; the next call of next() fails. Called by Statement.cancel(), from another thread.
+     */
+    void cancel() {
+        cancelled = true;
+        pages.close();
+    }
+
     @Override
     public void close() {
         isClosed = true;
+        pages.close();
     }
 
     public boolean isQuery() {
-        return dsResultSet.getColumnDefinitions().size() != 0;
+        return columnDefinitions.size() != 0;
+    }
+
+    private ExecutionInfo getExecutionInfo() {
+        return pages.getExecutionInfo();
     }
 
     @Override
@@ -167,8 +239,7 @@ public class CassandraResultSet implements ResultSet {
     public byte[] getBytes(int columnIndex) throws SQLException {
         checkClosed();
         if (currentRow != null) {
-            final ByteBuffer bytes = currentRow.getByteBuffer(columnIndex - 1);
-            return bytes != null ? bytes.array() : null;
+            return toBytes(currentRow.getByteBuffer(columnIndex - 1));
         }
         throw new SQLException("Exhausted ResultSet.");
     }
@@ -221,133 +292,113 @@ public class CassandraResultSet implements ResultSet {
     public InputStream getBinaryStream(int columnIndex) throws SQLException {
         checkClosed();
         if (currentRow != null) {
-            return new ByteBufferBackedInputStream( currentRow.getByteBuffer(columnIndex));
+            final ByteBuffer bytes = currentRow.getByteBuffer(columnIndex - 1);
+            return bytes != null ? new ByteBufferInputStream(bytes.duplicate()) : null;
         }
         throw new SQLException("Result exhausted.");
     }
 
+    /**
+     * Copies the bytes between the buffer position and limit. The buffer may be shared with the driver, so it is never returned.
+     */
+    private static byte[] toBytes(ByteBuffer bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        final byte[] copy = new byte[bytes.remaining()];
+        bytes.duplicate().get(copy);
+        return copy;
+    }
+
     @Override
     public String getString(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getString(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getString(findColumn(columnLabel));
     }
 
     @Override
     public boolean getBoolean(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getBoolean(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getBoolean(findColumn(columnLabel));
     }
 
     @Override
     public byte getByte(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getByte(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getByte(findColumn(columnLabel));
     }
 
     @Override
     public short getShort(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getShort(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getShort(findColumn(columnLabel));
     }
 
     @Override
     public int getInt(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getInt(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getInt(findColumn(columnLabel));
     }
 
     @Override
     public long getLong(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getLong(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getLong(findColumn(columnLabel));
     }
 
     @Override
     public float getFloat(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getFloat(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getFloat(findColumn(columnLabel));
     }
 
     @Override
     public double getDouble(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            return currentRow.getDouble(columnLabel);
-        }
-        throw new SQLException("Result exhausted.");
+        return getDouble(findColumn(columnLabel));
     }
 
     @Override
     public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getBigDecimal(findColumn(columnLabel), scale);
     }
 
     @Override
     public byte[] getBytes(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            ByteBuffer bytes = currentRow.getByteBuffer(columnLabel);
-            return bytes == null ? null : bytes.array();
-        }
-        throw new SQLException("Result exhausted.");
+        return getBytes(findColumn(columnLabel));
     }
 
     @Override
     public Date getDate(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getDate(findColumn(columnLabel));
     }
 
     @Override
     public Time getTime(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getTime(findColumn(columnLabel));
     }
 
     @Override
     public Timestamp getTimestamp(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getTimestamp(findColumn(columnLabel));
     }
 
     @Override
     public InputStream getAsciiStream(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getAsciiStream(findColumn(columnLabel));
     }
 
     @Override
     public InputStream getUnicodeStream(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getUnicodeStream(findColumn(columnLabel));
     }
 
     @Override
     public InputStream getBinaryStream(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getBinaryStream(findColumn(columnLabel));
     }
 
     @Override
     public SQLWarning getWarnings() {
         // SUGGESTED BY CRISTI TO SHOW EXECUTION WARNINGS
+        final ExecutionInfo executionInfo = getExecutionInfo();
+        if (executionInfo == null) {
+            return null;
+        }
         StringBuilder sb = new StringBuilder();
-        for (String warning : dsResultSet.getExecutionInfo().getWarnings()) {
+        for (String warning : executionInfo.getWarnings()) {
             sb.append(warning).append(" ");
         }
         return sb.length() > 0 ? new SQLWarning(sb.toString()) : null;
@@ -366,13 +417,10 @@ public class CassandraResultSet implements ResultSet {
     @Override
     public ResultSetMetaData getMetaData() throws SQLException {
         checkClosed();
-        dsResultSet.getColumnDefinitions();
-        List<CassandraResultSetMetaData.ColumnMetaData> columnMetaData = new ArrayList<>();
-        for (Iterator<ColumnDefinition> itr = dsResultSet.getColumnDefinitions().iterator(); itr.hasNext(); ) {
-            ColumnDefinition def = itr.next();
-            columnMetaData.add(new CassandraResultSetMetaData.ColumnMetaData(def.getName().toString(), def.getTable().toString(), def.getKeyspace().toString(), def.getType().toString() ));
+        if (metaData == null) {
+            metaData = statement.getResultSetMetaData(columnDefinitions);
         }
-        return new CassandraResultSetMetaData(columnMetaData);
+        return metaData;
     }
 
 
@@ -387,16 +435,39 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public Object getObject(String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    /**
+     * The label is case-insensitive, unless it is enclosed in double quotes, like the column names in CQL.
+     */
+    @Override
+    public int findColumn(String columnLabel) throws SQLException {
         checkClosed();
-        if (currentRow != null) {
-            return currentRow.getObject(columnLabel);
+        Integer index = columnIndexes.get(columnLabel);
+        if (index == null && columnLabel != null) {
+            if (columnLabel.length() > 1 && columnLabel.startsWith("\"") && columnLabel.endsWith("\"")) {
+                index = columnIndexes.get(CqlIdentifier.fromCql(columnLabel).asInternal());
+            } else {
+                index = lowerCaseColumnIndexes.get(columnLabel.toLowerCase(Locale.ROOT));
+            }
         }
-        throw new SQLException("Result exhausted.");
+        if (index == null) {
+            throw new SQLException("Column '" + columnLabel + "' not found.");
+        }
+        return index;
     }
 
-    @Override
-    public int findColumn(String columnLabel) {
-        return dsResultSet.getColumnDefinitions().firstIndexOf(columnLabel);
+    /**
+     * Map the column names to their JDBC index. If multiple columns have the same name, the first one is used.
+     */
+    private static Map<String, Integer> indexColumns(ColumnDefinitions columnDefinitions, boolean lowerCase) {
+        final Map<String, Integer> indexes = new HashMap<>();
+        for (int i = columnDefinitions.size() - 1; i >= 0; i--) {
+            final String name = columnDefinitions.get(i).getName().asInternal();
+            indexes.put(lowerCase ? name.toLowerCase(Locale.ROOT) : name, i + 1);
+        }
+        return Collections.unmodifiableMap(indexes);
     }
 
     @Override
@@ -406,7 +477,7 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public Reader getCharacterStream(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getCharacterStream(findColumn(columnLabel));
     }
 
     @Override
@@ -416,7 +487,7 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getBigDecimal(findColumn(columnLabel));
     }
 
     @Override
@@ -490,13 +561,19 @@ public class CassandraResultSet implements ResultSet {
     }
 
     @Override
-    public void setFetchSize(int rows) {
-        // todo
+    public void setFetchSize(int rows) throws SQLException {
+        checkClosed();
+        if (rows < 0) {
+            throw new SQLException("Fetch size should be positive or 0.");
+        }
+        fetchSize = rows;
+        pages.setPageSize(rows);
     }
 
     @Override
-    public int getFetchSize() {
-        return 0;
+    public int getFetchSize() throws SQLException {
+        checkClosed();
+        return fetchSize > 0 ? fetchSize : statement.fetchSize;
     }
 
     @Override
@@ -727,7 +804,7 @@ public class CassandraResultSet implements ResultSet {
         checkClosed();
         if (currentRow != null) {
             ByteBuffer bytes = currentRow.getByteBuffer(columnIndex - 1);
-            return bytes == null ? null : new BlobImpl(bytes.array());
+            return bytes == null ? null : new BlobImpl(bytes);
         }
         throw new SQLException("Exhausted ResultSet.");
     }
@@ -756,35 +833,23 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getObject(findColumn(columnLabel), map);
     }
 
     public Ref getRef(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getRef(findColumn(columnLabel));
     }
 
     public Blob getBlob(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            ByteBuffer bytes = currentRow.getByteBuffer(columnLabel);
-            return bytes == null ? null : new BlobImpl(bytes.array());
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        return getBlob(findColumn(columnLabel));
     }
 
     public Clob getClob(String columnLabel) throws SQLException {
-        throw new SQLException("Clob type is not supported by Cassandra");
+        return getClob(findColumn(columnLabel));
     }
 
     public Array getArray(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            Object o = currentRow.getObject(columnLabel);
-            if (!(o instanceof List)) return null;
-            List list = (List) o;
-            return toArray(list);
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        return getArray(findColumn(columnLabel));
     }
 
     public Date getDate(int columnIndex, Calendar cal) throws SQLException {
@@ -800,15 +865,15 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public Date getDate(String columnLabel, Calendar cal) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getDate(findColumn(columnLabel), cal);
     }
 
     public Time getTime(String columnLabel, Calendar cal) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getTime(findColumn(columnLabel), cal);
     }
 
     public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getTimestamp(findColumn(columnLabel), cal);
     }
 
     public URL getURL(int columnIndex) throws SQLException {
@@ -816,7 +881,7 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public URL getURL(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getURL(findColumn(columnLabel));
     }
 
     public void updateRef(int columnIndex, Ref x) throws SQLException {
@@ -856,7 +921,7 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public RowId getRowId(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getRowId(findColumn(columnLabel));
     }
 
     public void updateRowId(int columnIndex, RowId x) throws SQLException {
@@ -896,7 +961,7 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public NClob getNClob(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getNClob(findColumn(columnLabel));
     }
 
     public SQLXML getSQLXML(int columnIndex) throws SQLException {
@@ -904,7 +969,7 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public SQLXML getSQLXML(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getSQLXML(findColumn(columnLabel));
     }
 
     public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
@@ -920,7 +985,7 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public String getNString(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getNString(findColumn(columnLabel));
     }
 
     public Reader getNCharacterStream(int columnIndex) throws SQLException {
@@ -928,7 +993,7 @@ public class CassandraResultSet implements ResultSet {
     }
 
     public Reader getNCharacterStream(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getNCharacterStream(findColumn(columnLabel));
     }
 
     public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
@@ -1051,11 +1116,27 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        if (currentRow == null) {
+            throw new SQLException("Exhausted ResultSet.");
+        }
+        if (type == byte[].class) {
+            return type.cast(getBytes(columnIndex));
+        } else if (type == Blob.class) {
+            return type.cast(getBlob(columnIndex));
+        } else if (type == InputStream.class) {
+            return type.cast(getBinaryStream(columnIndex));
+        }
+        try {
+            // ByteBuffer and the other Java types known by the native driver codecs, without conversion
+            return currentRow.get(columnIndex - 1, type);
+        } catch (RuntimeException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
     }
 
     @Override
     public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getObject(findColumn(columnLabel), type);
     }
 }
@@ -1,15 +1,22 @@
 package com.wisecoders.dbschema.cassandra;
 
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 /**
+ * The metadata is immutable, and shared by the result sets of one statement which have the same column definitions.
+ *
  * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
  * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
  */
@@ -137,106 +144,115 @@ public class CassandraResultSetMetaData implements ResultSetMetaData {
         return columnMetaData.get(column - 1).getClassName();
     }
 
+    /**
+     * Build the metadata from the column definitions of a result set or a prepared statement.
+     */
+    static CassandraResultSetMetaData of(ColumnDefinitions columnDefinitions) {
+        final List<ColumnMetaData> columnMetaData = new ArrayList<>(columnDefinitions.size());
+        for (ColumnDefinition def : columnDefinitions) {
+            columnMetaData.add(new ColumnMetaData(def.getName().toString(), def.getTable().toString(), def.getKeyspace().toString(), def.getType()));
+        }
+        return new CassandraResultSetMetaData(columnMetaData);
+    }
+
+    /**
+     * The JDBC type, class name and scale are resolved once, from the protocol code of the column data type.
+     */
     static class ColumnMetaData {
         private static final int TYPE_MAP = 4999544;
         private static final int TYPE_LIST = 4999545;
 
-        private static final Map<String, Integer> javaTypeMap = new HashMap<>();
-        private static final Map<String, String> typeNameMap = new HashMap<>();
-        private static final Map<String, Integer> scaleMap = new HashMap<>();
+        private static final Map<Integer, Integer> javaTypeMap = new HashMap<>();
+        private static final Map<Integer, String> typeNameMap = new HashMap<>();
+        private static final Map<Integer, Integer> scaleMap = new HashMap<>();
 
         static {
-            javaTypeMap.put("ascii", Types.VARCHAR);
-            javaTypeMap.put("bigint", Types.BIGINT);
-            javaTypeMap.put("blob", Types.BLOB);
-            javaTypeMap.put("boolean", Types.BOOLEAN);
-            javaTypeMap.put("counter", Types.BIGINT);
-            javaTypeMap.put("date", Types.DATE);
-            javaTypeMap.put("decimal", Types.DECIMAL);
-            javaTypeMap.put("double", Types.DOUBLE);
-            javaTypeMap.put("duration", Types.JAVA_OBJECT);
-            javaTypeMap.put("float", Types.FLOAT);
-            javaTypeMap.put("inet", Types.JAVA_OBJECT);
-            javaTypeMap.put("int", Types.INTEGER);
-            javaTypeMap.put("list", TYPE_LIST);
-            javaTypeMap.put("map", TYPE_MAP);
-            javaTypeMap.put("set", Types.STRUCT);
-            javaTypeMap.put("smallint", Types.SMALLINT);
-            javaTypeMap.put("text", Types.VARCHAR);
-            javaTypeMap.put("timestamp", Types.TIMESTAMP);
-            javaTypeMap.put("tuple", Types.JAVA_OBJECT);
-            javaTypeMap.put("udt", Types.JAVA_OBJECT);
-            javaTypeMap.put("uuid", Types.JAVA_OBJECT);
-            javaTypeMap.put("time", Types.TIME);
-            javaTypeMap.put("timeuuid", Types.JAVA_OBJECT);
-            javaTypeMap.put("tinyint", Types.TINYINT);
-            javaTypeMap.put("varchar", Types.VARCHAR);
-            javaTypeMap.put("varint", Types.INTEGER);
-
-            typeNameMap.put("ascii", "java.lang.String");
-            typeNameMap.put("bigint", "java.lang.Long");
-            typeNameMap.put("blob", "java.lang.Byte[]");
-            typeNameMap.put("boolean", "java.lang.Boolean");
-            typeNameMap.put("counter", "java.lang.Long");
-            typeNameMap.put("date", "java.util.Date");
-            typeNameMap.put("decimal", "java.math.BigDecimal");
-            typeNameMap.put("double", "java.lang.Double");
-            typeNameMap.put("duration", "java.time.Duration");
-            typeNameMap.put("float", "java.lang.Float");
-            typeNameMap.put("inet", "java.net.InetAddress");
-            typeNameMap.put("int", "java.lang.Integer");
-            typeNameMap.put("list", "java.util.List");
-            typeNameMap.put("map", "java.util.Map");
-            typeNameMap.put("set", "java.lang.Set");
-            typeNameMap.put("smallint", "java.lang.Short");
-            typeNameMap.put("text", "java.lang.String");
-            typeNameMap.put("timestamp", "java.util.Date");
-            typeNameMap.put("tuple", "com.datastax.driver.core.TupleValue");
-            typeNameMap.put("udt", "com.datastax.driver.core.UDTValue");
-            typeNameMap.put("uuid", "java.util.UUID");
-            typeNameMap.put("time", "java.util.Time");
-            typeNameMap.put("timeuuid", "java.util.UUID");
-            typeNameMap.put("tinyint", "java.lang.Byte");
-            typeNameMap.put("varchar", "java.lang.String");
-            typeNameMap.put("varint", "java.math.BigInteger");
-
-            scaleMap.put("timestamp", 3);
-            scaleMap.put("time", 9);
-            scaleMap.put("duration", 9);
+            javaTypeMap.put(ProtocolConstants.DataType.ASCII, Types.VARCHAR);
+            javaTypeMap.put(ProtocolConstants.DataType.BIGINT, Types.BIGINT);
+            javaTypeMap.put(ProtocolConstants.DataType.BLOB, Types.BLOB);
+            javaTypeMap.put(ProtocolConstants.DataType.BOOLEAN, Types.BOOLEAN);
+            javaTypeMap.put(ProtocolConstants.DataType.COUNTER, Types.BIGINT);
+            javaTypeMap.put(ProtocolConstants.DataType.DATE, Types.DATE);
+            javaTypeMap.put(ProtocolConstants.DataType.DECIMAL, Types.DECIMAL);
+            javaTypeMap.put(ProtocolConstants.DataType.DOUBLE, Types.DOUBLE);
+            javaTypeMap.put(ProtocolConstants.DataType.DURATION, Types.JAVA_OBJECT);
+            javaTypeMap.put(ProtocolConstants.DataType.FLOAT, Types.FLOAT);
+            javaTypeMap.put(ProtocolConstants.DataType.INET, Types.JAVA_OBJECT);
+            javaTypeMap.put(ProtocolConstants.DataType.INT, Types.INTEGER);
+            javaTypeMap.put(ProtocolConstants.DataType.LIST, TYPE_LIST);
+            javaTypeMap.put(ProtocolConstants.DataType.MAP, TYPE_MAP);
+            javaTypeMap.put(ProtocolConstants.DataType.SET, Types.STRUCT);
+            javaTypeMap.put(ProtocolConstants.DataType.SMALLINT, Types.SMALLINT);
+            javaTypeMap.put(ProtocolConstants.DataType.TIMESTAMP, Types.TIMESTAMP);
+            javaTypeMap.put(ProtocolConstants.DataType.TUPLE, Types.JAVA_OBJECT);
+            javaTypeMap.put(ProtocolConstants.DataType.UDT, Types.JAVA_OBJECT);
+            javaTypeMap.put(ProtocolConstants.DataType.UUID, Types.JAVA_OBJECT);
+            javaTypeMap.put(ProtocolConstants.DataType.TIME, Types.TIME);
+            javaTypeMap.put(ProtocolConstants.DataType.TIMEUUID, Types.JAVA_OBJECT);
+            javaTypeMap.put(ProtocolConstants.DataType.TINYINT, Types.TINYINT);
+            javaTypeMap.put(ProtocolConstants.DataType.VARCHAR, Types.VARCHAR);
+            javaTypeMap.put(ProtocolConstants.DataType.VARINT, Types.INTEGER);
+
+            typeNameMap.put(ProtocolConstants.DataType.ASCII, "java.lang.String");
+            typeNameMap.put(ProtocolConstants.DataType.BIGINT, "java.lang.Long");
+            typeNameMap.put(ProtocolConstants.DataType.BLOB, "java.lang.Byte[]");
+            typeNameMap.put(ProtocolConstants.DataType.BOOLEAN, "java.lang.Boolean");
+            typeNameMap.put(ProtocolConstants.DataType.COUNTER, "java.lang.Long");
+            typeNameMap.put(ProtocolConstants.DataType.DATE, "java.util.Date");
+            typeNameMap.put(ProtocolConstants.DataType.DECIMAL, "java.math.BigDecimal");
+            typeNameMap.put(ProtocolConstants.DataType.DOUBLE, "java.lang.Double");
+            typeNameMap.put(ProtocolConstants.DataType.DURATION, "java.time.Duration");
+            typeNameMap.put(ProtocolConstants.DataType.FLOAT, "java.lang.Float");
+            typeNameMap.put(ProtocolConstants.DataType.INET, "java.net.InetAddress");
+            typeNameMap.put(ProtocolConstants.DataType.INT, "java.lang.Integer");
+            typeNameMap.put(ProtocolConstants.DataType.LIST, "java.util.List");
+            typeNameMap.put(ProtocolConstants.DataType.MAP, "java.util.Map");
+            typeNameMap.put(ProtocolConstants.DataType.SET, "java.util.Set");
+            typeNameMap.put(ProtocolConstants.DataType.SMALLINT, "java.lang.Short");
+            typeNameMap.put(ProtocolConstants.DataType.TIMESTAMP, "java.util.Date");
+            typeNameMap.put(ProtocolConstants.DataType.TUPLE, "com.datastax.oss.driver.api.core.data.TupleValue");
+            typeNameMap.put(ProtocolConstants.DataType.UDT, "com.datastax.oss.driver.api.core.data.UdtValue");
+            typeNameMap.put(ProtocolConstants.DataType.UUID, "java.util.UUID");
+            typeNameMap.put(ProtocolConstants.DataType.TIME, "java.util.Time");
+            typeNameMap.put(ProtocolConstants.DataType.TIMEUUID, "java.util.UUID");
+            typeNameMap.put(ProtocolConstants.DataType.TINYINT, "java.lang.Byte");
+            typeNameMap.put(ProtocolConstants.DataType.VARCHAR, "java.lang.String");
+            typeNameMap.put(ProtocolConstants.DataType.VARINT, "java.math.BigInteger");
+
+            scaleMap.put(ProtocolConstants.DataType.TIMESTAMP, 3);
+            scaleMap.put(ProtocolConstants.DataType.TIME, 9);
+            scaleMap.put(ProtocolConstants.DataType.DURATION, 9);
         }
 
         private final String name;
         private final String tableName;
         private final String typeName;
         private final String keyspace;
+        private final int javaType;
+        private final String className;
+        private final int scale;
 
-        ColumnMetaData(String name, String tableName, String keyspace, String typeName) {
+        ColumnMetaData(String name, String tableName, String keyspace, DataType type) {
             this.name = name;
             this.tableName = tableName;
-            this.typeName = typeName;
+            this.typeName = type.toString();
             this.keyspace = keyspace;
+            final int protocolCode = type.getProtocolCode();
+            this.javaType = javaTypeMap.getOrDefault(protocolCode, Types.OTHER);
+            this.className = typeNameMap.getOrDefault(protocolCode, "java.lang.Object");
+            this.scale = scaleMap.getOrDefault(protocolCode, 0);
         }
 
         int getJavaType() {
-            String lower = toLowerCase(typeName);
-            if (javaTypeMap.containsKey(lower)) return javaTypeMap.get(lower);
-            return Types.OTHER;
+            return javaType;
         }
 
         String getClassName() {
-            String lower = toLowerCase(typeName);
-            if (typeNameMap.containsKey(lower)) return typeNameMap.get(lower);
-            throw new IllegalArgumentException("Type name is not known: " + lower);
+            return className;
         }
 
         int getScale() {
-            String lower = toLowerCase(typeName);
-            if (scaleMap.containsKey(lower)) return scaleMap.get(lower);
-            return 0;
-        }
-
-        private String toLowerCase(String value) {
-            return value.toLowerCase(Locale.ENGLISH);
+            return scale;
         }
     }
 }
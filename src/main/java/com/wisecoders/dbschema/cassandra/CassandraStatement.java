@@ -1,7 +1,7 @@
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.cql.BatchStatement;
-import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
 import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
 
@@ -9,6 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
 
 /**
  * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
@@ -16,13 +20,10 @@ import java.sql.SQLSyntaxErrorException;
  */
 
 
-public class CassandraStatement extends CassandraBaseStatement {
-
-    private final CassandraConnection connection;
+public class CassandraStatement extends CassandraBaseStatement implements AsyncCassandraStatement {
 
     CassandraStatement( CassandraConnection connection) {
-        super(connection.getSession());
-        this.connection = connection;
+        super(connection);
     }
 
 
@@ -30,7 +31,7 @@ public class CassandraStatement extends CassandraBaseStatement {
     public ResultSet executeQuery(String sql) throws SQLException {
         checkClosed();
         try {
-            result = new CassandraResultSet(this, session.execute(sql));
+            result = executeQueryInner(sql);
             return result;
         } catch (SyntaxError ex) {
             ResultSet rs = connection.executeDescribeCommand( sql );
@@ -38,22 +39,39 @@ public class CassandraStatement extends CassandraBaseStatement {
                 return rs;
             }
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
+        } catch (DriverTimeoutException ex) {
+            throw new SQLTimeoutException(ex.getMessage(), ex);
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         }
     }
 
+    /**
+     * Full table scans are split by token ranges and read in parallel, if enabled by the <code>parallelscan</code> URL option or query hint.
+     * Scans limited by max rows are executed as one query, reading only the first page.
+     */
+    private CassandraResultSet executeQueryInner(String sql) {
+        final SimpleStatement statement = applyOptions(SimpleStatement.newInstance(sql));
+        final ParallelScan scan = maxRows > 0 ? null : ParallelScan.create(connection, statement, () -> startExecution(statement));
+        if (scan != null) {
+            return new CassandraResultSet(this, scan, true);
+        }
+        return executeStatement(statement, true);
+    }
+
     @Override
     public int executeUpdate(String sql) throws SQLException {
         checkClosed();
         try {
-            result = new CassandraResultSet(this, session.execute(sql));
+            result = executeStatement(applyOptions(SimpleStatement.newInstance(sql)), true);
             if (result.isQuery()) {
                 throw new SQLException("Not an update statement");
             }
             return 1;
         } catch (SyntaxError ex) {
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
+        } catch (DriverTimeoutException ex) {
+            throw new SQLTimeoutException(ex.getMessage(), ex);
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         }
@@ -63,12 +81,48 @@ public class CassandraStatement extends CassandraBaseStatement {
     public boolean execute(String sql) throws SQLException {
         checkClosed();
         try {
-            return executeInner(session.execute(sql), true);
+            final SimpleStatement statement = applyOptions(SimpleStatement.newInstance(sql));
+            final ParallelScan scan = maxRows > 0 ? null : ParallelScan.create(connection, statement, () -> startExecution(statement));
+            if (scan != null) {
+                result = new CassandraResultSet(this, scan, true);
+                return true;
+            }
+            return executeInner(statement, true);
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         }
     }
 
+    @Override
+    public CompletionStage<ResultSet> executeQueryAsync(String sql) {
+        try {
+            checkClosed();
+            return executeStatementAsync(applyOptions(SimpleStatement.newInstance(sql)), true).thenApply(ResultSet.class::cast);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(toSQLException(t));
+        }
+    }
+
+    @Override
+    public Flow.Publisher<Row> publishQuery(String sql) {
+        try {
+            checkClosed();
+            return publishStatement(applyOptions(SimpleStatement.newInstance(sql)));
+        } catch (Throwable t) {
+            return new RowPublisher(() -> CompletableFuture.failedFuture(t));
+        }
+    }
+
+    @Override
+    public CompletionStage<Integer> executeUpdateAsync(String sql) {
+        try {
+            checkClosed();
+            return executeStatementAsync(applyOptions(SimpleStatement.newInstance(sql)), true).thenApply(CassandraBaseStatement::toUpdateCount);
+        } catch (Throwable t) {
+            return CompletableFuture.failedFuture(toSQLException(t));
+        }
+    }
+
     @Override
     public ResultSet getResultSet() throws SQLException {
         checkClosed();
@@ -77,15 +131,12 @@ public class CassandraStatement extends CassandraBaseStatement {
 
     @Override
     public void addBatch(String sql) {
-        if (batchStatementBuilder == null) {
-            batchStatementBuilder = BatchStatement.builder(BatchType.LOGGED);
-        }
-        batchStatementBuilder.addStatement(SimpleStatement.newInstance(sql));
+        batchStatements.add(SimpleStatement.newInstance(sql));
     }
 
     @Override
     public void clearBatch() {
-        batchStatementBuilder = null;
+        batchStatements.clear();
     }
 
     @Override
@@ -1,109 +1,136 @@
 package com.wisecoders.dbschema.cassandra;
 
-import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.TimeZone;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongUnaryOperator;
 
 /**
+ * Moves dates between UTC and the time zone of a Calendar, keeping the wall clock fields: FROM_UTC returns the instant where the
+ * calendar time zone shows the UTC fields of the value, TO_UTC the reverse. Dates keep only the day and times only the time of day,
+ * on 1970-01-01. The conversions use offset arithmetic with the ZoneRules cached per time zone id, so they are thread-safe and do not
+ * allocate formatters. Like java.util.Calendar, a wall clock time in a DST gap uses the offset before the gap and an ambiguous time
+ * in an overlap uses the offset after it. Custom time zones, like a SimpleTimeZone, use the offsets of the TimeZone.
+ *
  * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
  * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
  */
 
 
 class DateUtil {
-    private static final SimpleDateFormat utcDateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    private static final SimpleDateFormat utcTimeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
-    private static final SimpleDateFormat utcDateTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
-    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
-
-    static {
-        utcDateFormat.setTimeZone(UTC);
-        utcTimeFormat.setTimeZone(UTC);
-        utcDateTimeFormat.setTimeZone(UTC);
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+    private static final ConcurrentMap<String, TzRules> RULES = new ConcurrentHashMap<>();
+
+    private static final LongUnaryOperator DATE = millis -> Math.floorDiv(millis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+    private static final LongUnaryOperator TIME = millis -> Math.floorMod(millis, MILLIS_PER_DAY);
+    private static final LongUnaryOperator DATE_TIME = millis -> millis;
+
+    /**
+     * The tz database rules of the time zone, or null for custom time zones, like a SimpleTimeZone, whose offsets are read from the
+     * TimeZone. A custom time zone may use the id of a tz database zone with other rules, so it is recognized by its class.
+     */
+    private static ZoneRules getRules(TimeZone timeZone) {
+        final TzRules tzRules = RULES.computeIfAbsent(timeZone.getID(), TzRules::of);
+        return tzRules.zoneClass == timeZone.getClass() ? tzRules.rules : null;
     }
 
-    private static SimpleDateFormat getDateFormat(TimeZone timeZone) {
-        if (timeZone.equals(UTC)) return utcDateFormat;
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-        dateFormat.setTimeZone(timeZone);
-        return dateFormat;
-    }
+    private static final class TzRules {
+        private final Class<?> zoneClass;
+        private final ZoneRules rules;
 
-    private static SimpleDateFormat getTimeFormat(TimeZone timeZone) {
-        if (timeZone.equals(UTC)) return utcTimeFormat;
-        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
-        timeFormat.setTimeZone(timeZone);
-        return timeFormat;
-    }
+        private TzRules(Class<?> zoneClass, ZoneRules rules) {
+            this.zoneClass = zoneClass;
+            this.rules = rules;
+        }
 
-    private static SimpleDateFormat getDateTimeFormat(TimeZone timeZone) {
-        if (timeZone.equals(UTC)) return utcDateTimeFormat;
-        SimpleDateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
-        dateTimeFormat.setTimeZone(timeZone);
-        return dateTimeFormat;
+        static TzRules of(String id) {
+            final TimeZone zone = TimeZone.getTimeZone(id);
+            try {
+                return new TzRules(zone.getClass(), zone.toZoneId().getRules());
+            } catch (DateTimeException ex) {
+                return new TzRules(null, null);
+            }
+        }
     }
 
-    static Timestamp considerTimeZone(Timestamp timestamp, Calendar calendar, Direction direction) throws SQLException {
-        long time = considerTimeZone(timestamp, calendar.getTimeZone(), direction, DateUtil::getDateTimeFormat);
+    static Timestamp considerTimeZone(Timestamp timestamp, Calendar calendar, Direction direction) {
+        long time = direction.convert(timestamp.getTime(), calendar.getTimeZone(), DATE_TIME);
         Timestamp result = new Timestamp(time);
         result.setNanos(timestamp.getNanos());
         return result;
     }
 
-    static java.sql.Date considerTimeZone(java.sql.Date timestamp, Calendar calendar, Direction direction) throws SQLException {
-        long time = considerTimeZone(timestamp, calendar.getTimeZone(), direction, DateUtil::getDateFormat);
+    static java.sql.Date considerTimeZone(java.sql.Date timestamp, Calendar calendar, Direction direction) {
+        long time = direction.convert(timestamp.getTime(), calendar.getTimeZone(), DATE);
         return new java.sql.Date(time);
     }
 
-    static Time considerTimeZone(Time timestamp, Calendar calendar, Direction direction) throws SQLException {
-        long time = considerTimeZone(timestamp, calendar.getTimeZone(), direction, DateUtil::getTimeFormat);
+    static Time considerTimeZone(Time timestamp, Calendar calendar, Direction direction) {
+        long time = direction.convert(timestamp.getTime(), calendar.getTimeZone(), TIME);
         return new Time(time);
     }
 
-    private static <T extends java.util.Date> long considerTimeZone(T date, TimeZone timeZone, Direction direction,
-                                                                    Function<TimeZone, DateFormat> formatSupplier) throws SQLException {
-        String startValue = direction.formatter(timeZone, formatSupplier).format(date);
-        try {
-            Date resultDate = direction.parser(timeZone, formatSupplier).parse(startValue);
-            return resultDate.getTime();
-        } catch (ParseException e) {
-            throw new SQLException(e);
+    /**
+     * The UTC wall clock fields of the instant, in the time zone.
+     */
+    private static long toLocal(long millis, TimeZone timeZone) {
+        final ZoneRules rules = getRules(timeZone);
+        if (rules == null) {
+            return millis + timeZone.getOffset(millis);
         }
+        final ZoneOffset offset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : rules.getOffset(Instant.ofEpochMilli(millis));
+        return millis + offset.getTotalSeconds() * 1000L;
+    }
+
+    /**
+     * The instant showing in the time zone the UTC wall clock fields of the given value.
+     */
+    private static long fromLocal(long millis, TimeZone timeZone) {
+        final ZoneRules rules = getRules(timeZone);
+        if (rules == null) {
+            // as java.util.GregorianCalendar does for time zones other than the tz database ones
+            return millis - timeZone.getOffset(millis - timeZone.getRawOffset());
+        }
+        if (rules.isFixedOffset()) {
+            return millis - rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L;
+        }
+        final LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        final ZoneOffsetTransition transition = rules.getTransition(local);
+        final ZoneOffset offset;
+        if (transition == null) {
+            offset = rules.getOffset(local);
+        } else {
+            offset = transition.isGap() ? transition.getOffsetBefore() : transition.getOffsetAfter();
+        }
+        return millis - offset.getTotalSeconds() * 1000L;
     }
 
     enum Direction {
         FROM_UTC {
             @Override
-            DateFormat formatter(TimeZone timeZone, Function<TimeZone, DateFormat> formatSupplier) {
-                return formatSupplier.apply(UTC);
-            }
-
-            @Override
-            DateFormat parser(TimeZone timeZone, Function<TimeZone, DateFormat> formatSupplier) {
-                return formatSupplier.apply(timeZone);
+            long convert(long millis, TimeZone timeZone, LongUnaryOperator fields) {
+                return fromLocal(fields.applyAsLong(millis), timeZone);
             }
         },
         TO_UTC {
             @Override
-            DateFormat formatter(TimeZone timeZone, Function<TimeZone, DateFormat> formatSupplier) {
-                return FROM_UTC.parser(timeZone, formatSupplier);
-            }
-
-            @Override
-            DateFormat parser(TimeZone timeZone, Function<TimeZone, DateFormat> formatSupplier) {
-                return FROM_UTC.formatter(timeZone, formatSupplier);
+            long convert(long millis, TimeZone timeZone, LongUnaryOperator fields) {
+                return fields.applyAsLong(toLocal(millis, timeZone));
             }
         };
 
-        abstract DateFormat formatter(TimeZone timeZone, Function<TimeZone, DateFormat> formatSupplier);
-
-        abstract DateFormat parser(TimeZone timeZone, Function<TimeZone, DateFormat> formatSupplier);
+        /**
+         * @param fields keeps the date, time or date and time fields, from a UTC value
+         */
+        abstract long convert(long millis, TimeZone timeZone, LongUnaryOperator fields);
     }
 }
@@ -1,13 +1,10 @@
 
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.CqlSession;
-
 import java.io.File;
-import java.io.IOException;
-import java.net.UnknownHostException;
-import java.security.GeneralSecurityException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.*;
 
@@ -31,27 +28,59 @@ public class JdbcDriver implements Driver {
 
     public static final Logger LOGGER = Logger.getLogger( JdbcDriver.class.getName() );
 
+    /**
+     * System property with the driver log level, default WARNING.
+     */
+    public static final String LOG_LEVEL_KEY = "cassandra.jdbc.log.level";
+    /**
+     * System property with the number of log records buffered for the log writer thread, default 1024.
+     * When the buffer is full the oldest records are dropped.
+     */
+    public static final String LOG_BUFFER_SIZE_KEY = "cassandra.jdbc.log.buffersize";
+
     static {
         try {
-            final File logsFile = new File("~/.DbSchema/logs/");
-            if ( !logsFile.exists()) {
-                logsFile.mkdirs();
-            }
-
             DriverManager.registerDriver( new JdbcDriver());
-            LOGGER.setLevel(Level.ALL);
-            final ConsoleHandler consoleHandler = new ConsoleHandler();
-            consoleHandler.setLevel(Level.ALL);
-            consoleHandler.setFormatter(new SimpleFormatter());
-            LOGGER.addHandler(consoleHandler);
+        } catch ( Exception ex ){
+            ex.printStackTrace();
+        }
+        initLogging();
+    }
 
-            final FileHandler fileHandler = new FileHandler(System.getProperty("user.home") + "/.DbSchema/logs/CassandraJdbcDriver.log");
+    /**
+     * The console and the file logs are written by a background thread, so logging never waits for the disk.
+     * The level is checked by the logger, before the message is built.
+     */
+    private static void initLogging() {
+        Level level = Level.WARNING;
+        int bufferSize = 1024;
+        try {
+            level = Level.parse(System.getProperty(LOG_LEVEL_KEY, level.getName()));
+            bufferSize = Integer.parseInt(System.getProperty(LOG_BUFFER_SIZE_KEY, String.valueOf(bufferSize)));
+        } catch ( IllegalArgumentException ex ){
+            ex.printStackTrace();
+        }
+        LOGGER.setLevel(level);
+        final List<Handler> handlers = new ArrayList<>();
+        final ConsoleHandler consoleHandler = new ConsoleHandler();
+        consoleHandler.setLevel(Level.ALL);
+        consoleHandler.setFormatter(new SimpleFormatter());
+        handlers.add(consoleHandler);
+        try {
+            final File logsFolder = new File(System.getProperty("user.home"), ".DbSchema/logs");
+            if ( !logsFolder.exists()) {
+                logsFolder.mkdirs();
+            }
+            final FileHandler fileHandler = new FileHandler(new File(logsFolder, "CassandraJdbcDriver.log").getPath());
             fileHandler.setFormatter( new SimpleFormatter());
             fileHandler.setLevel(Level.ALL);
-            LOGGER.addHandler(fileHandler);
+            handlers.add(fileHandler);
         } catch ( Exception ex ){
             ex.printStackTrace();
         }
+        // the driver console handler replaces the synchronous parent handlers
+        LOGGER.setUseParentHandlers(false);
+        LOGGER.addHandler(new AsyncLogHandler(Math.max(1, bufferSize), handlers.toArray(new Handler[0])));
     }
 
 
@@ -63,20 +92,11 @@ public class JdbcDriver implements Driver {
     public Connection connect(String url, Properties info) throws SQLException {
         if (url != null && acceptsURL(url)) {
             CassandraClientURI clientURI = new CassandraClientURI(url, info);
+            boolean returnNullStringsFromIntroQuery = Boolean.parseBoolean( info.getProperty( RETURN_NULL_STRINGS_FROM_INTRO_QUERY_KEY ) );
             try {
-                CqlSession session = clientURI.createCqlSession();
-                try {
-                    session.execute("SELECT cql_version FROM system.local");
-                } catch (Throwable e) {
-                    throw new SQLException(e.getMessage(), e);
-                }
-                boolean returnNullStringsFromIntroQuery = Boolean.parseBoolean( info.getProperty( RETURN_NULL_STRINGS_FROM_INTRO_QUERY_KEY ) );
-                return new CassandraConnection(session, this, returnNullStringsFromIntroQuery);
-            } catch (UnknownHostException e) {
-                throw new SQLException(e.getMessage(), e);
-            } catch (GeneralSecurityException e) {
-                throw new SQLException(e.getMessage(), e);
-            } catch (IOException e) {
+                SharedSession sharedSession = SessionRegistry.acquire(clientURI);
+                return new CassandraConnection(sharedSession, this, clientURI, returnNullStringsFromIntroQuery);
+            } catch (Throwable e) {
                 throw new SQLException(e.getMessage(), e);
             }
         }
@@ -0,0 +1,93 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, like HdrHistogram: values below 32 ns have their own bucket, larger
+ * values are split in 16 buckets per power of two, so a percentile is within 1/16 of the recorded value. Values above about
+ * 18 minutes are counted in the last bucket. Recording is a few atomic increments, and can be done from any thread.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR_BITS = 5;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int HALF_BUCKETS = LINEAR_BUCKETS / 2;
+    private static final int MAX_BITS = 40;
+    private static final int BUCKETS = index((1L << MAX_BITS) - 1) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    static int index(long nanos) {
+        if (nanos < LINEAR_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        final int shift = Math.min(63 - Long.numberOfLeadingZeros(nanos), MAX_BITS - 1) - (LINEAR_BITS - 1);
+        final long subBucket = Math.min(nanos >>> shift, LINEAR_BUCKETS - 1);
+        return LINEAR_BUCKETS + (shift - 1) * HALF_BUCKETS + (int) (subBucket - HALF_BUCKETS);
+    }
+
+    /**
+     * The largest value counted in the bucket.
+     */
+    static long highestValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        final int shift = (index - LINEAR_BUCKETS) / HALF_BUCKETS + 1;
+        final long subBucket = (index - LINEAR_BUCKETS) % HALF_BUCKETS + HALF_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    void record(long nanos) {
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        sum.add(nanos);
+        if (nanos > max.get()) {
+            max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    long getMean() {
+        final long recorded = count.sum();
+        return recorded == 0 ? 0 : sum.sum() / recorded;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the highest value of the bucket holding the percentile, at most the max recorded value, 0 if nothing was recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+}
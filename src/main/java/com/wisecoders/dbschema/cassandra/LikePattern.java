@@ -0,0 +1,87 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.regex.Pattern;
+
+/**
+ * A DatabaseMetaData name pattern, where <code>%</code> matches any sequence of characters and <code>_</code> any single character.
+ * The wildcards are used literally when preceded by the escape <code>\</code>, as returned by getSearchStringEscape().
+ * The literal prefix, up to the first wildcard, is used to look up the names in the sorted indexes of the SchemaSnapshot.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class LikePattern {
+
+    static final String ESCAPE = "\\";
+
+    /**
+     * Matches all names, used for null patterns.
+     */
+    static final LikePattern ANY = new LikePattern("", Pattern.compile(".*", Pattern.DOTALL));
+
+    private final String prefix;
+    private final Pattern regex;
+
+    private LikePattern(String prefix, Pattern regex) {
+        this.prefix = prefix;
+        this.regex = regex;
+    }
+
+    static LikePattern compile(String pattern) {
+        if (pattern == null || "%".equals(pattern)) {
+            return ANY;
+        }
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        String prefix = null;
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == ESCAPE.charAt(0) && i + 1 < pattern.length()) {
+                literal.append(pattern.charAt(++i));
+            } else if (c == '%' || c == '_') {
+                if (prefix == null) {
+                    prefix = literal.toString();
+                }
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (prefix == null) {
+            return new LikePattern(literal.toString(), null);
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return new LikePattern(prefix, Pattern.compile(regex.toString(), Pattern.DOTALL));
+    }
+
+    boolean matchesAll() {
+        return this == ANY;
+    }
+
+    /**
+     * @return true if the pattern has no wildcard, then it matches only the name returned by getPrefix()
+     */
+    boolean isLiteral() {
+        return regex == null;
+    }
+
+    /**
+     * @return the text before the first wildcard, which all matching names start with
+     */
+    String getPrefix() {
+        return prefix;
+    }
+
+    boolean matches(String name) {
+        if (regex == null) {
+            return prefix.equals(name);
+        }
+        return name.startsWith(prefix) && regex.matcher(name).matches();
+    }
+}
@@ -0,0 +1,362 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Full table scan split by token ranges. The ring is split in token ranges using the session TokenMap, and each range is read
+ * with a sub-query <code>SELECT ... WHERE token(pk) &gt; ? AND token(pk) &lt;= ?</code> routed to the replicas of the range.
+ * Up to <code>parallelism</code> ranges are read at the same time, and the rows are returned in the order the pages arrive.
+ * The next page of a range is requested when the caller starts consuming the current one, so at most one page per running range is buffered.
+ *
+ * Used for queries <code>SELECT ... FROM [keyspace.]table</code> without WHERE, LIMIT, GROUP BY or aggregates, when the
+ * URL option <code>parallelscan</code> is set or the query has the hint <code>SELECT /*+ PARALLEL(n) *&#47; ...</code>.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class ParallelScan implements RowSource {
+
+    private static final Pattern SCAN_QUERY = Pattern.compile(
+            "\\s*SELECT\\s+(?:/\\*\\+\\s*PARALLEL\\s*\\(\\s*(\\d+)\\s*\\)\\s*\\*/\\s*)?(.+?)\\s+FROM\\s+((?:\"[^\"]+\"|\\w+)(?:\\.(?:\"[^\"]+\"|\\w+))?)\\s*;?\\s*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern AGGREGATE = Pattern.compile("\\b(?:COUNT|MIN|MAX|SUM|AVG)\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    private final CqlSession session;
+    private final ColumnDefinitions columnDefinitions;
+    private final Deque<Statement<?>> pendingRanges;
+    private final int parallelism;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pageArrived = lock.newCondition();
+    private final Deque<AsyncResultSet> readyPages = new ArrayDeque<>();
+    // the requests in flight, with the time they were sent
+    private final Map<CompletableFuture<AsyncResultSet>, Long> inFlight = new HashMap<>();
+    private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private int runningRanges = 0;
+    private Throwable failure;
+    private boolean closed = false;
+    private int pageSize = 0;
+    private final StatementExecution execution;
+    private boolean firstPageReceived = false;
+
+    private AsyncResultSet current;
+    private Iterator<Row> currentRows = Collections.emptyIterator();
+
+    ParallelScan(CqlSession session, ColumnDefinitions columnDefinitions, Collection<? extends Statement<?>> rangeStatements, int parallelism) {
+        this(session, columnDefinitions, rangeStatements, parallelism, null);
+    }
+
+    /**
+     * @param execution records the pages and rows of all the ranges, null if the statement metrics and the slow query log are disabled
+     */
+    ParallelScan(CqlSession session, ColumnDefinitions columnDefinitions, Collection<? extends Statement<?>> rangeStatements, int parallelism,
+                 StatementExecution execution) {
+        this.session = session;
+        this.execution = execution;
+        this.columnDefinitions = columnDefinitions;
+        this.pendingRanges = new ArrayDeque<>(rangeStatements);
+        this.parallelism = Math.max(1, parallelism);
+        lock.lock();
+        try {
+            startRanges();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Create a parallel scan if the query is a full table scan and the parallel scan is enabled by the URL option or the query hint.
+     * The range statements have the page size, timeout, consistency levels and execution profile of the statement.
+     *
+     * @param executions starts following the scan for the statement metrics and the slow query log, may return null
+     * @return the scan, or null if the query should be executed as it is
+     */
+    static ParallelScan create(CassandraConnection connection, SimpleStatement scanStatement, Supplier<StatementExecution> executions) {
+        final Matcher matcher = SCAN_QUERY.matcher(scanStatement.getQuery());
+        if (!matcher.matches()) {
+            return null;
+        }
+        final int parallelism = matcher.group(1) != null ? Integer.parseInt(matcher.group(1)) : connection.getClientURI().getParallelScan();
+        final String selectors = matcher.group(2);
+        if (parallelism < 2 || AGGREGATE.matcher(selectors).find()) {
+            return null;
+        }
+        final CqlSession session = connection.getSession();
+        final Optional<TokenMap> tokenMap = session.getMetadata().getTokenMap();
+        final TableMetadata table = findTable(session, matcher.group(3));
+        if (!tokenMap.isPresent() || table == null) {
+            return null;
+        }
+        final StringBuilder partitionKey = new StringBuilder();
+        for (ColumnMetadata column : table.getPartitionKey()) {
+            partitionKey.append(partitionKey.length() > 0 ? "," : "").append(column.getName().asCql(true));
+        }
+        final String query = "SELECT " + selectors + " FROM " + table.getKeyspace().asCql(true) + "." + table.getName().asCql(true) +
+                " WHERE token(" + partitionKey + ") > ?";
+        final PreparedStatementCache cache = connection.getPreparedStatementCache();
+        final PreparedStatement lowerBound = cache.prepare(session, query);
+        final PreparedStatement range = cache.prepare(session, query + " AND token(" + partitionKey + ") <= ?");
+
+        final List<Statement<?>> statements = new ArrayList<>();
+        for (TokenRange tokenRange : splitRing(tokenMap.get().getTokenRanges(), parallelism)) {
+            BoundStatement statement;
+            // after unwrap, only the range ending at the minimum token has end <= start
+            if (tokenRange.getEnd().compareTo(tokenRange.getStart()) <= 0) {
+                statement = lowerBound.bind().setToken(0, tokenRange.getStart());
+            } else {
+                statement = range.bind().setToken(0, tokenRange.getStart()).setToken(1, tokenRange.getEnd());
+            }
+            statements.add(withOptionsOf(statement.setRoutingToken(tokenRange.getEnd()), scanStatement));
+        }
+        final ParallelScan scan = new ParallelScan(session, range.getResultSetDefinitions(), statements, parallelism, executions.get());
+        scan.pageSize = scanStatement.getPageSize();
+        return scan;
+    }
+
+    static BoundStatement withOptionsOf(BoundStatement statement, Statement<?> options) {
+        if (options.getPageSize() > 0) {
+            statement = statement.setPageSize(options.getPageSize());
+        }
+        if (options.getTimeout() != null) {
+            statement = statement.setTimeout(options.getTimeout());
+        }
+        if (options.getConsistencyLevel() != null) {
+            statement = statement.setConsistencyLevel(options.getConsistencyLevel());
+        }
+        if (options.getSerialConsistencyLevel() != null) {
+            statement = statement.setSerialConsistencyLevel(options.getSerialConsistencyLevel());
+        }
+        if (options.getExecutionProfile() != null) {
+            statement = statement.setExecutionProfile(options.getExecutionProfile());
+        } else if (options.getExecutionProfileName() != null) {
+            statement = statement.setExecutionProfileName(options.getExecutionProfileName());
+        }
+        return statement;
+    }
+
+    private static TableMetadata findTable(CqlSession session, String name) {
+        final int dot = name.startsWith("\"") ? name.indexOf("\".") + 1 : name.indexOf('.');
+        final Optional<CqlIdentifier> keyspace = dot > 0 ? Optional.of(CqlIdentifier.fromCql(name.substring(0, dot))) : session.getKeyspace();
+        if (!keyspace.isPresent()) {
+            return null;
+        }
+        final CqlIdentifier table = CqlIdentifier.fromCql(dot > 0 ? name.substring(dot + 1) : name);
+        return session.getMetadata().getKeyspace(keyspace.get()).flatMap(ks -> ks.getTable(table)).orElse(null);
+    }
+
+    /**
+     * Split the ring into non-wrapping ranges. The ranges owned by the nodes are split further, so there are at least
+     * <code>splits</code> ranges, and each range can be read from one replica set.
+     */
+    static List<TokenRange> splitRing(Set<TokenRange> ownedRanges, int splits) {
+        final int splitsPerRange = Math.max(1, (splits + ownedRanges.size() - 1) / Math.max(1, ownedRanges.size()));
+        final List<TokenRange> ranges = new ArrayList<>();
+        for (TokenRange ownedRange : ownedRanges) {
+            for (TokenRange split : splitsPerRange > 1 ? ownedRange.splitEvenly(splitsPerRange) : Collections.singletonList(ownedRange)) {
+                ranges.addAll(split.unwrap());
+            }
+        }
+        return ranges;
+    }
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions() {
+        return columnDefinitions;
+    }
+
+    @Override
+    public ExecutionInfo getExecutionInfo() {
+        return current != null ? current.getExecutionInfo() : null;
+    }
+
+    @Override
+    public void setPageSize(int pageSize) {
+        lock.lock();
+        try {
+            this.pageSize = pageSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentRows.hasNext()) {
+            lock.lock();
+            try {
+                while (readyPages.isEmpty()) {
+                    if (failure != null) {
+                        throw new CompletionException(failure);
+                    }
+                    if (closed) {
+                        return false;
+                    }
+                    if (runningRanges == 0) {
+                        if (execution != null) {
+                            execution.finished();
+                        }
+                        return false;
+                    }
+                    pageArrived.awaitUninterruptibly();
+                }
+                current = readyPages.poll();
+                currentRows = current.currentPage().iterator();
+                if (current.hasMorePages()) {
+                    request(current.fetchNextPage().toCompletableFuture());
+                } else {
+                    runningRanges--;
+                    startRanges();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public CompletionStage<Void> ready() {
+        lock.lock();
+        try {
+            if (currentRows.hasNext() || !readyPages.isEmpty() || failure != null || closed || runningRanges == 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (execution != null) {
+            execution.rowRead();
+        }
+        return currentRows.next();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            readyPages.clear();
+            pendingRanges.clear();
+            for (CompletableFuture<AsyncResultSet> future : new ArrayList<>(inFlight.keySet())) {
+                future.cancel(true);
+            }
+            pageArrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (execution != null) {
+            execution.finished();
+        }
+        completeWaiters();
+    }
+
+    // Called with the lock held.
+    private void startRanges() {
+        while (runningRanges < parallelism && !pendingRanges.isEmpty() && !closed && failure == null) {
+            Statement<?> statement = pendingRanges.poll();
+            if (pageSize > 0 && statement.getPageSize() != pageSize) {
+                statement = statement.setPageSize(pageSize);
+            }
+            runningRanges++;
+            request(session.executeAsync(statement).toCompletableFuture());
+        }
+    }
+
+    // Called with the lock held.
+    private void request(CompletableFuture<AsyncResultSet> future) {
+        inFlight.put(future, System.nanoTime());
+        future.whenComplete((page, error) -> onPage(future, page, error));
+    }
+
+    private void onPage(CompletableFuture<AsyncResultSet> future, AsyncResultSet page, Throwable error) {
+        lock.lock();
+        try {
+            final Long requested = inFlight.remove(future);
+            if (closed) {
+                return;
+            }
+            if (error != null) {
+                failure = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (execution != null) {
+                    execution.executed(null, failure);
+                }
+            } else {
+                if (execution != null) {
+                    if (firstPageReceived) {
+                        execution.pageFetched(requested, page);
+                    } else {
+                        execution.executed(page, null);
+                    }
+                }
+                firstPageReceived = true;
+                readyPages.add(page);
+            }
+            pageArrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        completeWaiters();
+    }
+
+    // Called without the lock, the waiters may continue in this thread.
+    private void completeWaiters() {
+        final List<CompletableFuture<Void>> completed;
+        lock.lock();
+        try {
+            if (waiters.isEmpty()) {
+                return;
+            }
+            completed = new ArrayList<>(waiters);
+            waiters.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (CompletableFuture<Void> waiter : completed) {
+            waiter.complete(null);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListenerBase;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, LRU-evicted cache of the native prepared statements, scoped to one JDBC connection.
+ * Entries are keyed by the session keyspace and the normalized CQL text, so the same query prepared while
+ * using another keyspace is prepared again. Any table, type or keyspace change reported by the session schema
+ * listener drops all entries, so a stale result set definition is never reused.
+ * The size is configured with the <code>preparedstatementcachesize</code> URL option, 0 disables the cache.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+public class PreparedStatementCache extends SchemaChangeListenerBase {
+
+    static final int DEFAULT_SIZE = 256;
+
+    private final int maxSize;
+    private final Map<String, PreparedStatement> entries;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long generation = 0;
+
+    PreparedStatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > PreparedStatementCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached prepared statement or prepare it using the session.
+     * The session is called outside the lock, so a slow prepare does not block the other threads using the connection.
+     */
+    PreparedStatement prepare(CqlSession session, String cql) {
+        if (maxSize <= 0) {
+            return AsyncPageIterator.await(session.prepareAsync(cql));
+        }
+        final String key = session.getKeyspace().map(CqlIdentifier::asInternal).orElse("") + '\u0000' + normalize(cql);
+        final long expectedGeneration;
+        synchronized (this) {
+            final PreparedStatement prepared = entries.get(key);
+            if (prepared != null) {
+                hitCount++;
+                return prepared;
+            }
+            missCount++;
+            expectedGeneration = generation;
+        }
+        final PreparedStatement prepared = AsyncPageIterator.await(session.prepareAsync(cql));
+        synchronized (this) {
+            // A schema change during the prepare may have made the statement stale, then it is not cached.
+            if (generation == expectedGeneration) {
+                entries.put(key, prepared);
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Collapse whitespace outside quoted literals and identifiers and drop the trailing semicolon,
+     * so formatting differences do not produce different cache entries.
+     * <code>$$</code> string literals and comments are kept as they are.
+     */
+    static String normalize(String cql) {
+        final StringBuilder sb = new StringBuilder(cql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        boolean unterminated = false;
+        for (int i = 0; i < cql.length(); i++) {
+            final char c = cql.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == quote) quote = 0;
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                final int verbatimEnd = verbatimEnd(cql, i);
+                if (verbatimEnd != i) {
+                    unterminated = verbatimEnd < 0;
+                    final int end = unterminated ? cql.length() : verbatimEnd;
+                    sb.append(cql, i, end);
+                    i = end - 1;
+                    continue;
+                }
+                if (c == '\'' || c == '"') quote = c;
+                sb.append(c);
+            }
+        }
+        int length = sb.length();
+        while (length > 0 && sb.charAt(length - 1) == ';' && quote == 0 && !unterminated) {
+            length--;
+        }
+        sb.setLength(length > 0 && sb.charAt(length - 1) == ' ' ? length - 1 : length);
+        return sb.toString();
+    }
+
+    /**
+     * If a <code>$$</code> string literal or a comment starts at the position, return the position after it, including the
+     * new line ending a line comment. Return -1 if it is not terminated and the position itself if there is none.
+     */
+    private static int verbatimEnd(String cql, int start) {
+        final String terminator;
+        if (cql.startsWith("$$", start)) {
+            terminator = "$$";
+        } else if (cql.startsWith("/*", start)) {
+            terminator = "*/";
+        } else if (cql.startsWith("--", start) || cql.startsWith("//", start)) {
+            terminator = "\n";
+        } else {
+            return start;
+        }
+        final int end = cql.indexOf(terminator, start + 2);
+        return end < 0 ? -1 : end + terminator.length();
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+    }
+
+    @Override
+    public void onKeyspaceDropped(KeyspaceMetadata keyspace) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onKeyspaceUpdated(KeyspaceMetadata current, KeyspaceMetadata previous) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onTableCreated(TableMetadata table) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onTableDropped(TableMetadata table) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onTableUpdated(TableMetadata current, TableMetadata previous) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onUserDefinedTypeDropped(UserDefinedType type) {
+        invalidateAll();
+    }
+
+    @Override
+    public void onUserDefinedTypeUpdated(UserDefinedType current, UserDefinedType previous) {
+        invalidateAll();
+    }
+
+    /**
+     * Nothing to release, the entries are dropped with the connection.
+     */
+    @Override
+    public void close() {
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PreparedStatementCache size=" + entries.size() + "/" + maxSize + " hits=" + hitCount + " misses=" + missCount + " evictions=" + evictionCount;
+    }
+}
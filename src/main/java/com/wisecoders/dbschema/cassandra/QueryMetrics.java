@@ -0,0 +1,32 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and counters of the executions of one CQL fingerprint, recorded by StatementExecution.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class QueryMetrics {
+
+    final String fingerprint;
+    final LatencyHistogram execute = new LatencyHistogram();
+    final LatencyHistogram firstRow = new LatencyHistogram();
+    final LatencyHistogram pageFetch = new LatencyHistogram();
+    final LatencyHistogram consume = new LatencyHistogram();
+    final LongAdder errors = new LongAdder();
+    final LongAdder rows = new LongAdder();
+    final LongAdder pages = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+
+    QueryMetrics(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    StatementStatistics toStatistics() {
+        return new StatementStatistics(fingerprint, execute.getCount(), errors.sum(), rows.sum(), pages.sum(), bytes.sum(),
+                StatementStatistics.Latency.of(execute), StatementStatistics.Latency.of(firstRow),
+                StatementStatistics.Latency.of(pageFetch), StatementStatistics.Latency.of(consume));
+    }
+}
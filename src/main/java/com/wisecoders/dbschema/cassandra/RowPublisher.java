@@ -0,0 +1,155 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the rows of a RowSource with backpressure. The rows are emitted only while the subscriber has demand, and the
+ * next page is requested only when the current one is consumed and more rows are requested, so at most one page is held
+ * in memory. Rows are never emitted while waiting for a page: the emission continues in the driver thread which receives it.
+ * Cancelling the subscription closes the source.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class RowPublisher implements Flow.Publisher<Row> {
+
+    private final Supplier<CompletionStage<? extends RowSource>> sources;
+
+    /**
+     * @param sources called for each subscriber, to execute the query or to return the rows of an open result set
+     */
+    RowPublisher(Supplier<CompletionStage<? extends RowSource>> sources) {
+        this.sources = sources;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Row> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        final RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        CompletionStage<? extends RowSource> source;
+        try {
+            source = sources.get();
+        } catch (Throwable t) {
+            source = CompletableFuture.failedFuture(t);
+        }
+        source.whenComplete(subscription::start);
+    }
+
+    private static final class RowSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Row> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private volatile RowSource source;
+        private volatile Throwable failure;
+        private volatile boolean cancelled = false;
+        private volatile boolean waitingForPage = false;
+        private boolean done = false;
+
+        RowSubscription(Flow.Subscriber<? super Row> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void start(RowSource source, Throwable error) {
+            if (error != null) {
+                failure = error;
+            } else {
+                this.source = source;
+                if (cancelled) {
+                    source.close();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("The requested number of rows should be positive, got " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            final RowSource current = source;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        // Only one thread emits at a time; a drain requested meanwhile is run by that thread, in the next iteration.
+        private void drain() {
+            if (pendingDrains.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                emit();
+            } while (pendingDrains.decrementAndGet() != 0);
+        }
+
+        private void emit() {
+            if (done || cancelled) {
+                return;
+            }
+            if (failure != null) {
+                terminate(failure);
+                return;
+            }
+            final RowSource rows = source;
+            if (rows == null || waitingForPage) {
+                return;
+            }
+            try {
+                while (demand.get() > 0 && !cancelled) {
+                    final CompletableFuture<Void> ready = rows.ready().toCompletableFuture();
+                    if (!ready.isDone()) {
+                        waitingForPage = true;
+                        ready.whenComplete((ignored, error) -> {
+                            waitingForPage = false;
+                            drain();
+                        });
+                        return;
+                    }
+                    if (!rows.hasNext()) {
+                        terminate(null);
+                        return;
+                    }
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(rows.next());
+                }
+            } catch (Throwable t) {
+                terminate(t);
+            }
+        }
+
+        private void terminate(Throwable error) {
+            done = true;
+            final RowSource rows = source;
+            if (rows != null) {
+                rows.close();
+            }
+            if (error instanceof IllegalArgumentException) {
+                subscriber.onError(error);
+            } else if (error != null) {
+                subscriber.onError(CassandraBaseStatement.toSQLException(error));
+            } else {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
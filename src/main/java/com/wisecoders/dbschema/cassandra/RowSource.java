@@ -0,0 +1,41 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Rows read asynchronously, page by page, by a CassandraResultSet.
+ * Errors received from the server are thrown by hasNext() as CompletionException.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+interface RowSource extends Iterator<Row> {
+
+    ColumnDefinitions getColumnDefinitions();
+
+    /**
+     * The execution info of the page currently consumed, or null if no page was received yet.
+     */
+    ExecutionInfo getExecutionInfo();
+
+    /**
+     * The next pages are requested using this page size, instead of the page size of the first request.
+     */
+    void setPageSize(int pageSize);
+
+    /**
+     * Completes when hasNext() can be called without blocking: rows are available, the rows are all read, or a request failed.
+     * Requests the next page if needed.
+     */
+    CompletionStage<Void> ready();
+
+    /**
+     * Stop reading and release the buffered pages.
+     */
+    void close();
+}
@@ -0,0 +1,122 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.metadata.schema.*;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The schema change listener registered on a session. Forwards the events to the listeners of all
+ * connections sharing the session; listeners can be added and removed while the session is open.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class SchemaChangeDispatcher implements SchemaChangeListener {
+
+    private final List<SchemaChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    void addListener(SchemaChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(SchemaChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onKeyspaceCreated(KeyspaceMetadata keyspace) {
+        for (SchemaChangeListener listener : listeners) listener.onKeyspaceCreated(keyspace);
+    }
+
+    @Override
+    public void onKeyspaceDropped(KeyspaceMetadata keyspace) {
+        for (SchemaChangeListener listener : listeners) listener.onKeyspaceDropped(keyspace);
+    }
+
+    @Override
+    public void onKeyspaceUpdated(KeyspaceMetadata current, KeyspaceMetadata previous) {
+        for (SchemaChangeListener listener : listeners) listener.onKeyspaceUpdated(current, previous);
+    }
+
+    @Override
+    public void onTableCreated(TableMetadata table) {
+        for (SchemaChangeListener listener : listeners) listener.onTableCreated(table);
+    }
+
+    @Override
+    public void onTableDropped(TableMetadata table) {
+        for (SchemaChangeListener listener : listeners) listener.onTableDropped(table);
+    }
+
+    @Override
+    public void onTableUpdated(TableMetadata current, TableMetadata previous) {
+        for (SchemaChangeListener listener : listeners) listener.onTableUpdated(current, previous);
+    }
+
+    @Override
+    public void onUserDefinedTypeCreated(UserDefinedType type) {
+        for (SchemaChangeListener listener : listeners) listener.onUserDefinedTypeCreated(type);
+    }
+
+    @Override
+    public void onUserDefinedTypeDropped(UserDefinedType type) {
+        for (SchemaChangeListener listener : listeners) listener.onUserDefinedTypeDropped(type);
+    }
+
+    @Override
+    public void onUserDefinedTypeUpdated(UserDefinedType current, UserDefinedType previous) {
+        for (SchemaChangeListener listener : listeners) listener.onUserDefinedTypeUpdated(current, previous);
+    }
+
+    @Override
+    public void onFunctionCreated(FunctionMetadata function) {
+        for (SchemaChangeListener listener : listeners) listener.onFunctionCreated(function);
+    }
+
+    @Override
+    public void onFunctionDropped(FunctionMetadata function) {
+        for (SchemaChangeListener listener : listeners) listener.onFunctionDropped(function);
+    }
+
+    @Override
+    public void onFunctionUpdated(FunctionMetadata current, FunctionMetadata previous) {
+        for (SchemaChangeListener listener : listeners) listener.onFunctionUpdated(current, previous);
+    }
+
+    @Override
+    public void onAggregateCreated(AggregateMetadata aggregate) {
+        for (SchemaChangeListener listener : listeners) listener.onAggregateCreated(aggregate);
+    }
+
+    @Override
+    public void onAggregateDropped(AggregateMetadata aggregate) {
+        for (SchemaChangeListener listener : listeners) listener.onAggregateDropped(aggregate);
+    }
+
+    @Override
+    public void onAggregateUpdated(AggregateMetadata current, AggregateMetadata previous) {
+        for (SchemaChangeListener listener : listeners) listener.onAggregateUpdated(current, previous);
+    }
+
+    @Override
+    public void onViewCreated(ViewMetadata view) {
+        for (SchemaChangeListener listener : listeners) listener.onViewCreated(view);
+    }
+
+    @Override
+    public void onViewDropped(ViewMetadata view) {
+        for (SchemaChangeListener listener : listeners) listener.onViewDropped(view);
+    }
+
+    @Override
+    public void onViewUpdated(ViewMetadata current, ViewMetadata previous) {
+        for (SchemaChangeListener listener : listeners) listener.onViewUpdated(current, previous);
+    }
+
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+}
@@ -0,0 +1,353 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable copy of the rows returned by the CassandraMetaData methods getCatalogs(), getTables(), getColumns(),
+ * getPrimaryKeys() and getIndexInfo(). The rows are computed once from the driver schema metadata; a schema change
+ * creates a new snapshot with a higher version, recomputing only the rows of the changed table or keyspace.
+ * The rows are shared by all result sets and must not be modified.
+ * The tables of each keyspace are sorted by name, so a LikePattern is resolved by a range lookup on its literal prefix.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class SchemaSnapshot {
+
+    static final String[] CATALOG_COLUMNS = {"TABLE_CAT"};
+    static final String[] TABLE_COLUMNS = {"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME",
+            "TABLE_TYPE", "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "SELF_REFERENCING_COL_NAME",
+            "REF_GENERATION"};
+    static final String[] COLUMN_COLUMNS = {"TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "COLUMN_NAME",
+            "DATA_TYPE", "TYPE_NAME", "COLUMN_SIZE", "BUFFER_LENGTH", "DECIMAL_DIGITS", "NUM_PREC_RADIX",
+            "NULLABLE", "REMARKS", "COLUMN_DEF", "SQL_DATA_TYPE", "SQL_DATETIME_SUB", "CHAR_OCTET_LENGTH",
+            "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA", "SCOPE_TABLE",
+            "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "OPTIONS"};
+    static final String[] PRIMARY_KEY_COLUMNS = {"TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "COLUMN_NAME", "KEY_SEQ", "PK_NAME"};
+    static final String[] INDEX_COLUMNS = {"TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "NON_UNIQUE",
+            "INDEX_QUALIFIER", "INDEX_NAME", "TYPE", "ORDINAL_POSITION", "COLUMN_NAME", "ASC_OR_DESC",
+            "CARDINALITY", "PAGES", "FILTER_CONDITION"};
+
+    private final long version;
+    private final Map<String, String[]> catalogs;
+    private final Map<CqlIdentifier, KeyspaceRows> keyspaces;
+    private final List<String[]> catalogRows;
+
+    private SchemaSnapshot(long version, Map<String, String[]> catalogs, Map<CqlIdentifier, KeyspaceRows> keyspaces) {
+        this.version = version;
+        this.catalogs = catalogs;
+        this.keyspaces = keyspaces;
+        this.catalogRows = Collections.unmodifiableList(new ArrayList<>(catalogs.values()));
+    }
+
+    /**
+     * @param keyspaces the keyspaces known by the driver
+     * @param otherCatalogs names of keyspaces not loaded by the driver, listed only by getCatalogs()
+     */
+    static SchemaSnapshot build(Collection<KeyspaceMetadata> keyspaces, Collection<String> otherCatalogs) {
+        final Map<String, String[]> catalogs = new LinkedHashMap<>();
+        final Map<CqlIdentifier, KeyspaceRows> keyspaceRows = new LinkedHashMap<>();
+        for (KeyspaceMetadata keyspace : keyspaces) {
+            catalogs.put(keyspace.getName().asInternal(), new String[]{keyspace.getName().asInternal()});
+            keyspaceRows.put(keyspace.getName(), new KeyspaceRows(keyspace.getTables().values()));
+        }
+        for (String name : otherCatalogs) {
+            catalogs.putIfAbsent(name, new String[]{name});
+        }
+        return new SchemaSnapshot(0, catalogs, keyspaceRows);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    SchemaSnapshot withKeyspace(KeyspaceMetadata keyspace) {
+        final Map<String, String[]> newCatalogs = new LinkedHashMap<>(catalogs);
+        newCatalogs.putIfAbsent(keyspace.getName().asInternal(), new String[]{keyspace.getName().asInternal()});
+        final Map<CqlIdentifier, KeyspaceRows> newKeyspaces = new LinkedHashMap<>(keyspaces);
+        newKeyspaces.put(keyspace.getName(), new KeyspaceRows(keyspace.getTables().values()));
+        return new SchemaSnapshot(version + 1, newCatalogs, newKeyspaces);
+    }
+
+    SchemaSnapshot withoutKeyspace(CqlIdentifier keyspace) {
+        final Map<String, String[]> newCatalogs = new LinkedHashMap<>(catalogs);
+        newCatalogs.remove(keyspace.asInternal());
+        final Map<CqlIdentifier, KeyspaceRows> newKeyspaces = new LinkedHashMap<>(keyspaces);
+        newKeyspaces.remove(keyspace);
+        return new SchemaSnapshot(version + 1, newCatalogs, newKeyspaces);
+    }
+
+    SchemaSnapshot withTable(TableMetadata table) {
+        final Map<String, String[]> newCatalogs = new LinkedHashMap<>(catalogs);
+        newCatalogs.putIfAbsent(table.getKeyspace().asInternal(), new String[]{table.getKeyspace().asInternal()});
+        final Map<CqlIdentifier, KeyspaceRows> newKeyspaces = new LinkedHashMap<>(keyspaces);
+        final KeyspaceRows previous = keyspaces.get(table.getKeyspace());
+        newKeyspaces.put(table.getKeyspace(), previous != null ? previous.withTable(table) : new KeyspaceRows(Collections.singletonList(table)));
+        return new SchemaSnapshot(version + 1, newCatalogs, newKeyspaces);
+    }
+
+    SchemaSnapshot withoutTable(CqlIdentifier keyspace, CqlIdentifier table) {
+        final KeyspaceRows previous = keyspaces.get(keyspace);
+        if (previous == null || !previous.tables.containsKey(table.asInternal())) {
+            return this;
+        }
+        final Map<CqlIdentifier, KeyspaceRows> newKeyspaces = new LinkedHashMap<>(keyspaces);
+        newKeyspaces.put(keyspace, previous.withoutTable(table));
+        return new SchemaSnapshot(version + 1, catalogs, newKeyspaces);
+    }
+
+    List<String[]> getCatalogRows() {
+        return catalogRows;
+    }
+
+    List<String[]> getTableRows(String catalogName, LikePattern tableNamePattern) {
+        final KeyspaceRows keyspace = keyspace(catalogName);
+        if (keyspace == null) {
+            return Collections.emptyList();
+        }
+        if (tableNamePattern.matchesAll()) {
+            return keyspace.tableRows;
+        }
+        final List<String[]> rows = new ArrayList<>();
+        for (TableRows table : keyspace.tables(tableNamePattern)) {
+            rows.add(table.table);
+        }
+        return rows;
+    }
+
+    List<String[]> getColumnRows(String catalogName, LikePattern tableNamePattern, LikePattern columnNamePattern) {
+        final KeyspaceRows keyspace = keyspace(catalogName);
+        if (keyspace == null) {
+            return Collections.emptyList();
+        }
+        if (tableNamePattern.matchesAll() && columnNamePattern.matchesAll()) {
+            return keyspace.columnRows;
+        }
+        final List<String[]> rows = new ArrayList<>();
+        for (TableRows table : keyspace.tables(tableNamePattern)) {
+            if (columnNamePattern.matchesAll()) {
+                rows.addAll(table.columns);
+            } else if (columnNamePattern.isLiteral()) {
+                final String[] column = table.column(columnNamePattern.getPrefix());
+                if (column != null) {
+                    rows.add(column);
+                }
+            } else {
+                for (String[] column : table.columns) {
+                    if (columnNamePattern.matches(column[3])) {
+                        rows.add(column);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    List<String[]> getPrimaryKeyRows(String catalogName, String tableName) {
+        final TableRows table = table(catalogName, tableName);
+        return table != null ? table.primaryKey : Collections.emptyList();
+    }
+
+    List<String[]> getIndexRows(String catalogName, String tableName) {
+        final TableRows table = table(catalogName, tableName);
+        return table != null ? table.indexes : Collections.emptyList();
+    }
+
+    /**
+     * The names are matched as stored, then as CQL identifiers, so unquoted names are found in lower case.
+     */
+    private KeyspaceRows keyspace(String catalogName) {
+        if (catalogName == null) {
+            return null;
+        }
+        final KeyspaceRows keyspace = keyspaces.get(CqlIdentifier.fromInternal(catalogName));
+        return keyspace != null ? keyspace : keyspaces.get(CqlIdentifier.fromCql(catalogName));
+    }
+
+    private TableRows table(String catalogName, String tableName) {
+        final KeyspaceRows keyspace = keyspace(catalogName);
+        return keyspace != null && tableName != null ? keyspace.table(tableName) : null;
+    }
+
+    private static final class KeyspaceRows {
+
+        private final NavigableMap<String, TableRows> tables;
+        private final List<String[]> tableRows;
+        private final List<String[]> columnRows;
+
+        KeyspaceRows(Collection<TableMetadata> tableMetadata) {
+            this(toTableRows(tableMetadata));
+        }
+
+        private KeyspaceRows(NavigableMap<String, TableRows> tables) {
+            this.tables = tables;
+            final List<String[]> tableRows = new ArrayList<>(tables.size());
+            final List<String[]> columnRows = new ArrayList<>();
+            for (TableRows table : tables.values()) {
+                tableRows.add(table.table);
+                columnRows.addAll(table.columns);
+            }
+            this.tableRows = Collections.unmodifiableList(tableRows);
+            this.columnRows = Collections.unmodifiableList(columnRows);
+        }
+
+        private static NavigableMap<String, TableRows> toTableRows(Collection<TableMetadata> tableMetadata) {
+            final NavigableMap<String, TableRows> tables = new TreeMap<>();
+            for (TableMetadata table : tableMetadata) {
+                tables.put(table.getName().asInternal(), new TableRows(table));
+            }
+            return tables;
+        }
+
+        TableRows table(String name) {
+            final TableRows table = tables.get(name);
+            return table != null ? table : tables.get(CqlIdentifier.fromCql(name).asInternal());
+        }
+
+        Collection<TableRows> tables(LikePattern pattern) {
+            if (pattern.matchesAll()) {
+                return tables.values();
+            }
+            if (pattern.isLiteral()) {
+                final TableRows table = table(pattern.getPrefix());
+                return table != null ? Collections.singletonList(table) : Collections.emptyList();
+            }
+            final Collection<TableRows> candidates = pattern.getPrefix().isEmpty() ? tables.values() :
+                    tables.subMap(pattern.getPrefix(), true, pattern.getPrefix() + Character.MAX_VALUE, true).values();
+            final List<TableRows> matching = new ArrayList<>();
+            for (TableRows table : candidates) {
+                if (pattern.matches(table.table[2])) {
+                    matching.add(table);
+                }
+            }
+            return matching;
+        }
+
+        KeyspaceRows withTable(TableMetadata table) {
+            final NavigableMap<String, TableRows> newTables = new TreeMap<>(tables);
+            newTables.put(table.getName().asInternal(), new TableRows(table));
+            return new KeyspaceRows(newTables);
+        }
+
+        KeyspaceRows withoutTable(CqlIdentifier table) {
+            final NavigableMap<String, TableRows> newTables = new TreeMap<>(tables);
+            newTables.remove(table.asInternal());
+            return new KeyspaceRows(newTables);
+        }
+    }
+
+    private static final class TableRows {
+
+        private final String[] table;
+        private final List<String[]> columns;
+        private final Map<String, String[]> columnsByName;
+        private final List<String[]> primaryKey;
+        private final List<String[]> indexes;
+
+        TableRows(TableMetadata tableMetadata) {
+            final String keyspaceName = tableMetadata.getKeyspace().asInternal();
+            final String tableName = tableMetadata.getName().asInternal();
+            table = new String[]{
+                    keyspaceName, // TABLE_CAT
+                    "", // TABLE_SCHEM
+                    tableName, // TABLE_NAME
+                    "TABLE", // TABLE_TYPE
+                    null, // REMARKS
+                    "", // TYPE_CAT
+                    "", // TYPE_SCHEM
+                    "", // TYPE_NAME
+                    "", // SELF_REFERENCING_COL_NAME
+                    "" // REF_GENERATION
+            };
+
+            final List<String[]> columns = new ArrayList<>();
+            for (ColumnMetadata columnMetadata : tableMetadata.getColumns().values()) {
+                columns.add(new String[]{
+                        keyspaceName, // "TABLE_CAT",
+                        null, // "TABLE_SCHEMA",
+                        tableName, // "TABLE_NAME", (i.e. Cassandra Collection Name)
+                        columnMetadata.getName().asInternal(), // "COLUMN_NAME",
+                        "" + columnMetadata.getType(), // "DATA_TYPE",
+                        "" + columnMetadata.getType(), // "TYPE_NAME", -- I LET THIS INTENTIONALLY TO USE .toString() BECAUSE OF USER DEFINED TYPES.
+                        "800", // "COLUMN_SIZE",
+                        "0", // "BUFFER_LENGTH", (not used)
+                        "0", // "DECIMAL_DIGITS",
+                        "10", // "NUM_PREC_RADIX",
+                        "0", // "NULLABLE", // I RETREIVE HERE IF IS FROZEN ( MANDATORY ) OR NOT ( NULLABLE )
+                        "", // "REMARKS",
+                        "", // "COLUMN_DEF",
+                        "0", // "SQL_DATA_TYPE", (not used)
+                        "0", // "SQL_DATETIME_SUB", (not used)
+                        "800", // "CHAR_OCTET_LENGTH",
+                        "1", // "ORDINAL_POSITION",
+                        "NO", // "IS_NULLABLE",
+                        null, // "SCOPE_CATLOG", (not a REF type)
+                        null, // "SCOPE_SCHEMA", (not a REF type)
+                        null, // "SCOPE_TABLE", (not a REF type)
+                        null, // "SOURCE_DATA_TYPE", (not a DISTINCT or REF type)
+                        "NO", // "IS_AUTOINCREMENT" (can be auto-generated, but can also be specified)
+                        "" // TABLE_OPTIONS
+                });
+            }
+            this.columns = Collections.unmodifiableList(columns);
+            final Map<String, String[]> columnsByName = new LinkedHashMap<>();
+            for (String[] column : columns) {
+                columnsByName.put(column[3], column);
+            }
+            this.columnsByName = columnsByName;
+
+            final List<String[]> primaryKey = new ArrayList<>();
+            int seq = 0;
+            for (ColumnMetadata columnMetadata : tableMetadata.getPrimaryKey()) {
+                primaryKey.add(new String[]{
+                        keyspaceName, // "TABLE_CAT",
+                        null, // "TABLE_SCHEMA",
+                        tableName, // "TABLE_NAME", (i.e. Cassandra Collection Name)
+                        columnMetadata.getName().asInternal(), // "COLUMN_NAME",
+                        "" + seq++, // "ORDINAL_POSITION"
+                        "PRIMARY KEY" // "PK_NAME"
+                });
+            }
+            this.primaryKey = Collections.unmodifiableList(primaryKey);
+
+            final List<String[]> indexes = new ArrayList<>();
+            seq = 0;
+            for (Map.Entry<ColumnMetadata, ClusteringOrder> entry : tableMetadata.getClusteringColumns().entrySet()) {
+                indexes.add(new String[]{
+                        keyspaceName, // "TABLE_CAT",
+                        null, // "TABLE_SCHEMA",
+                        tableName, // "TABLE_NAME", (i.e. Cassandra Collection Name)
+                        "FALSE", // "NON-UNIQUE",
+                        entry.getKey().getName().asInternal(), // "INDEX QUALIFIER",
+                        "CLUSTER KEY", // "INDEX_NAME",
+                        "0", // "TYPE",
+                        "" + seq++, // "ORDINAL_POSITION"
+                        entry.getKey().getName().asInternal(), // "COLUMN_NAME",
+                        entry.getValue() == ClusteringOrder.ASC ? "A" : "D", // "ASC_OR_DESC",
+                        "0", // "CARDINALITY",
+                        "0", // "PAGES",
+                        "" // "FILTER_CONDITION",
+                });
+            }
+            this.indexes = Collections.unmodifiableList(indexes);
+        }
+
+        String[] column(String name) {
+            final String[] column = columnsByName.get(name);
+            return column != null ? column : columnsByName.get(CqlIdentifier.fromCql(name).asInternal());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListenerBase;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Holds the current SchemaSnapshot of a session, shared by all connections using the session.
+ * The snapshot is built on first use and then updated by the session schema listener: a table event recomputes the rows
+ * of that table, a keyspace event the rows of that keyspace. Readers never wait for an update, they get the last published snapshot.
+ * The first build and the updates are guarded by a ReentrantLock, so a virtual thread building the snapshot does not pin its carrier.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class SchemaSnapshotCache extends SchemaChangeListenerBase {
+
+    private static final String KEYSPACES_QUERY = "SELECT keyspace_name FROM system_schema.keyspaces";
+
+    private final CqlSession session;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile SchemaSnapshot snapshot;
+
+    SchemaSnapshotCache(CqlSession session) {
+        this.session = session;
+    }
+
+    SchemaSnapshot get() {
+        SchemaSnapshot current = snapshot;
+        if (current == null) {
+            lock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = snapshot = SchemaSnapshot.build(session.getMetadata().getKeyspaces().values(), loadKeyspaceNames());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The driver may be configured to load the metadata only for some keyspaces, the other ones are listed from the system tables.
+     */
+    private List<String> loadKeyspaceNames() {
+        final List<String> names = new ArrayList<>();
+        try {
+            AsyncResultSet page = AsyncPageIterator.await(session.executeAsync(KEYSPACES_QUERY));
+            while (true) {
+                for (Row row : page.currentPage()) {
+                    names.add(row.getString(0));
+                }
+                if (!page.hasMorePages()) {
+                    break;
+                }
+                page = AsyncPageIterator.await(page.fetchNextPage());
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.warning(() -> "Error loading keyspaces using query '" + KEYSPACES_QUERY + "': " + ex);
+        }
+        return names;
+    }
+
+    // Events received before the first get() are ignored, the snapshot is built from the already updated session metadata.
+    private void update(UnaryOperator<SchemaSnapshot> change) {
+        lock.lock();
+        try {
+            if (snapshot != null) {
+                snapshot = change.apply(snapshot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onKeyspaceCreated(KeyspaceMetadata keyspace) {
+        update(published -> published.withKeyspace(keyspace));
+    }
+
+    @Override
+    public void onKeyspaceDropped(KeyspaceMetadata keyspace) {
+        update(published -> published.withoutKeyspace(keyspace.getName()));
+    }
+
+    @Override
+    public void onKeyspaceUpdated(KeyspaceMetadata current, KeyspaceMetadata previous) {
+        update(published -> published.withKeyspace(current));
+    }
+
+    @Override
+    public void onTableCreated(TableMetadata table) {
+        update(published -> published.withTable(table));
+    }
+
+    @Override
+    public void onTableDropped(TableMetadata table) {
+        update(published -> published.withoutTable(table.getKeyspace(), table.getName()));
+    }
+
+    @Override
+    public void onTableUpdated(TableMetadata current, TableMetadata previous) {
+        update(published -> published.withTable(current));
+    }
+
+    /**
+     * Nothing to release, the snapshot is dropped with the session.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,155 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Reference counted registry of the open sessions. Connections opened with the same hosts, keyspace, data center,
+ * credentials and SSL settings share one CqlSession, which is thread-safe. This saves the control connection,
+ * the schema and node discovery and the connection pools for each new JDBC connection.
+ * Sharing is enabled by the URL option <code>sharesession=true</code>, by default each connection opens a private session.
+ * The registry is guarded by a ReentrantLock and the sessions are opened asynchronously, outside the lock, so a virtual thread
+ * waiting for a session to open is parked and does not pin its carrier thread.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class SessionRegistry {
+
+    private static final Map<String, CompletableFuture<SharedSession>> SESSIONS = new HashMap<>();
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private SessionRegistry() {
+    }
+
+    /**
+     * The lock is held only to look up or publish the future of the session, which is opened outside the lock. Connections
+     * to the same URL wait for the session being opened, connections to other URLs do not wait. If the session cannot be
+     * opened, its future is removed and the next connection tries again.
+     */
+    static SharedSession acquire(CassandraClientURI clientURI) throws IOException, GeneralSecurityException {
+        if (!clientURI.getShareSession()) {
+            return open(clientURI, null);
+        }
+        final String key = clientURI.getSessionKey();
+        while (true) {
+            CompletableFuture<SharedSession> opening = null;
+            CompletableFuture<SharedSession> registered;
+            LOCK.lock();
+            try {
+                registered = SESSIONS.get(key);
+                if (registered == null) {
+                    opening = new CompletableFuture<>();
+                    SESSIONS.put(key, opening);
+                } else if (registered.isDone()) {
+                    final SharedSession sharedSession = registered.join();
+                    sharedSession.references++;
+                    return sharedSession;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+            if (opening == null) {
+                // acquire again once opened, the session may be released and closed meanwhile
+                waitFor(registered);
+                continue;
+            }
+            final SharedSession sharedSession;
+            try {
+                sharedSession = open(clientURI, key);
+            } catch (IOException | GeneralSecurityException | RuntimeException | Error ex) {
+                LOCK.lock();
+                try {
+                    SESSIONS.remove(key, opening);
+                } finally {
+                    LOCK.unlock();
+                }
+                opening.completeExceptionally(ex);
+                throw ex;
+            }
+            opening.complete(sharedSession);
+            return sharedSession;
+        }
+    }
+
+    /**
+     * Wait until the session opened by another connection is ready, throwing the error if it could not be opened.
+     */
+    private static void waitFor(CompletableFuture<SharedSession> opening) throws IOException, GeneralSecurityException {
+        try {
+            AsyncPageIterator.await(opening);
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            if (ex.getCause() instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static SharedSession open(CassandraClientURI clientURI, String key) throws IOException, GeneralSecurityException {
+        final SchemaChangeDispatcher schemaChangeDispatcher = new SchemaChangeDispatcher();
+        final CqlSession session = clientURI.createCqlSession(schemaChangeDispatcher);
+        try {
+            AsyncPageIterator.await(session.executeAsync("SELECT cql_version FROM system.local"));
+        } catch (RuntimeException ex) {
+            session.close();
+            throw ex;
+        }
+        StatementMetrics statementMetrics = null;
+        if (clientURI.getMetrics()) {
+            statementMetrics = new StatementMetrics();
+            statementMetrics.register(session.getName());
+        }
+        return new SharedSession(key, session, schemaChangeDispatcher, statementMetrics);
+    }
+
+    /**
+     * Decrease the reference count and close the session if no other connection is using it. A session already closed is
+     * ignored, and the registry entry is removed only if it is this session, not a newer one opened for the same key.
+     */
+    static void release(SharedSession sharedSession) {
+        LOCK.lock();
+        try {
+            if (sharedSession.references <= 0 || --sharedSession.references > 0) {
+                return;
+            }
+            if (sharedSession.getKey() != null) {
+                final CompletableFuture<SharedSession> registered = SESSIONS.get(sharedSession.getKey());
+                if (registered != null && !registered.isCompletedExceptionally() && registered.getNow(null) == sharedSession) {
+                    SESSIONS.remove(sharedSession.getKey());
+                }
+            }
+        } finally {
+            LOCK.unlock();
+        }
+        if (sharedSession.getStatementMetrics() != null) {
+            sharedSession.getStatementMetrics().unregister();
+        }
+        try {
+            sharedSession.getSession().close();
+        } catch (RuntimeException ex) {
+            LOGGER.warning(() -> "Error closing session: " + ex);
+        }
+    }
+
+    static int getOpenSessionCount() {
+        LOCK.lock();
+        try {
+            return SESSIONS.size();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+
+/**
+ * A CqlSession with the number of JDBC connections using it.
+ * Created and released by the SessionRegistry; the session is closed when the last connection is closed.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+class SharedSession {
+
+    private final String key;
+    private final CqlSession session;
+    private final SchemaChangeDispatcher schemaChangeDispatcher;
+    private final SchemaSnapshotCache schemaSnapshotCache;
+    private final StatementMetrics statementMetrics;
+    int references = 1;
+
+    SharedSession(String key, CqlSession session, SchemaChangeDispatcher schemaChangeDispatcher) {
+        this(key, session, schemaChangeDispatcher, null);
+    }
+
+    SharedSession(String key, CqlSession session, SchemaChangeDispatcher schemaChangeDispatcher, StatementMetrics statementMetrics) {
+        this.key = key;
+        this.session = session;
+        this.schemaChangeDispatcher = schemaChangeDispatcher;
+        this.statementMetrics = statementMetrics;
+        this.schemaSnapshotCache = new SchemaSnapshotCache(session);
+        schemaChangeDispatcher.addListener(schemaSnapshotCache);
+    }
+
+    /**
+     * @return the registry key, null if the session is not shared.
+     */
+    String getKey() {
+        return key;
+    }
+
+    CqlSession getSession() {
+        return session;
+    }
+
+    SchemaChangeDispatcher getSchemaChangeDispatcher() {
+        return schemaChangeDispatcher;
+    }
+
+    SchemaSnapshotCache getSchemaSnapshotCache() {
+        return schemaSnapshotCache;
+    }
+
+    /**
+     * @return the statement metrics, null if not enabled by the <code>metrics</code> URL option
+     */
+    StatementMetrics getStatementMetrics() {
+        return statementMetrics;
+    }
+}
@@ -0,0 +1,91 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+/**
+ * Logs the statements whose execution and result reading take at least the <code>slowquerymillis</code> URL option, with the
+ * CQL text, consistency level, pages, rows, coordinator and bound values. Failed statements are logged with the error class. The literals of the CQL text are replaced by <code>?</code>
+ * and the bound values are logged only as type and size, so no data is written to the log. The records are written by the
+ * asynchronous handler of the driver log, independent of the driver log level.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class SlowQueryLog {
+
+    static final Logger LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+
+    static {
+        LOGGER.setUseParentHandlers(false);
+        for (Handler handler : JdbcDriver.LOGGER.getHandlers()) {
+            LOGGER.addHandler(handler);
+        }
+    }
+
+    private SlowQueryLog() {
+    }
+
+    /**
+     * @param error the error of the execution, null if it succeeded
+     */
+    static void log(StatementExecution execution, long executeNanos, long totalNanos, Throwable error) {
+        final Statement<?> statement = execution.statement;
+        final ExecutionInfo executionInfo = execution.getExecutionInfo();
+        final Node coordinator = executionInfo == null ? null : executionInfo.getCoordinator();
+        final ConsistencyLevel consistency = statement.getConsistencyLevel();
+        LOGGER.warning(() -> "Slow query: " + TimeUnit.NANOSECONDS.toMillis(totalNanos) + " ms"
+                + " (execute " + TimeUnit.NANOSECONDS.toMillis(executeNanos) + " ms)"
+                + (error == null ? "" : ", failed with " + error.getClass().getName())
+                + ", pages " + execution.getPages()
+                + ", rows " + execution.getRows()
+                + ", consistency " + (consistency == null ? "default" : consistency.name())
+                + ", coordinator " + (coordinator == null ? "unknown" : coordinator.getEndPoint())
+                + ", cql: " + StatementMetrics.fingerprint(queryOf(statement))
+                + valuesOf(statement));
+    }
+
+    private static String queryOf(Statement<?> statement) {
+        if (statement instanceof SimpleStatement) {
+            return ((SimpleStatement) statement).getQuery();
+        }
+        if (statement instanceof BoundStatement) {
+            return ((BoundStatement) statement).getPreparedStatement().getQuery();
+        }
+        return null;
+    }
+
+    /**
+     * The bound values as name, type and size.
+     */
+    static String valuesOf(Statement<?> statement) {
+        if (!(statement instanceof BoundStatement)) {
+            return "";
+        }
+        final ColumnDefinitions variables = ((BoundStatement) statement).getPreparedStatement().getVariableDefinitions();
+        final List<ByteBuffer> values = ((BoundStatement) statement).getValues();
+        final StringBuilder sb = new StringBuilder(", values: [");
+        for (int i = 0; i < values.size(); i++) {
+            final ColumnDefinition variable = variables.get(i);
+            final ByteBuffer value = values.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(variable.getName().asCql(true)).append(' ').append(variable.getType().asCql(false, true))
+                    .append(value == null ? " null" : " (" + value.remaining() + " bytes)");
+        }
+        return sb.append(']').toString();
+    }
+}
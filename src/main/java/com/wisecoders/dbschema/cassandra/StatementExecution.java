@@ -0,0 +1,129 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Follows one execution, from the request to the end of its result, for the statement metrics and the slow query log.
+ * Created only if the connection has the <code>metrics</code> or the <code>slowquerymillis</code> option set. The rows are
+ * reported by the thread reading the result, the pages by the driver threads receiving them.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class StatementExecution {
+
+    final Statement<?> statement;
+    private final QueryMetrics metrics;
+    private final long slowQueryNanos;
+    private final long started = System.nanoTime();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final AtomicBoolean logged = new AtomicBoolean();
+    private final AtomicInteger pages = new AtomicInteger();
+    private volatile long executeNanos;
+    private volatile ExecutionInfo executionInfo;
+    private volatile long rows = 0;
+
+    /**
+     * @param metrics the metrics of the statement fingerprint, null if not recorded
+     * @param slowQueryNanos the execution or result reading time from which the statement is logged, 0 to not log it
+     */
+    StatementExecution(Statement<?> statement, QueryMetrics metrics, long slowQueryNanos) {
+        this.statement = statement;
+        this.metrics = metrics;
+        this.slowQueryNanos = slowQueryNanos;
+    }
+
+    void executed(AsyncResultSet firstPage, Throwable error) {
+        if (error != null) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            final long totalNanos = System.nanoTime() - started;
+            if (metrics != null) {
+                metrics.errors.increment();
+            }
+            // timeouts are the slowest statements
+            if (slowQueryNanos > 0 && totalNanos >= slowQueryNanos && logged.compareAndSet(false, true)) {
+                SlowQueryLog.log(this, totalNanos, totalNanos, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+            return;
+        }
+        executeNanos = System.nanoTime() - started;
+        executionInfo = firstPage.getExecutionInfo();
+        if (metrics != null) {
+            metrics.execute.record(executeNanos);
+        }
+        paged(firstPage);
+        // logged now, the result may never be read to the end or closed
+        if (slowQueryNanos > 0 && executeNanos >= slowQueryNanos && logged.compareAndSet(false, true)) {
+            SlowQueryLog.log(this, executeNanos, executeNanos, null);
+        }
+        // an update has no result to read, it ends here
+        if (firstPage.getColumnDefinitions().size() == 0) {
+            finished();
+        }
+    }
+
+    void pageFetched(long requested, AsyncResultSet page) {
+        if (metrics != null) {
+            metrics.pageFetch.record(System.nanoTime() - requested);
+        }
+        paged(page);
+    }
+
+    private void paged(AsyncResultSet page) {
+        pages.incrementAndGet();
+        if (metrics != null) {
+            metrics.pages.increment();
+            metrics.bytes.add(AsyncPageIterator.sizeOf(page));
+        }
+    }
+
+    void rowRead() {
+        final long read = rows + 1;
+        rows = read;
+        if (metrics != null) {
+            if (read == 1) {
+                metrics.firstRow.record(System.nanoTime() - started);
+            }
+            metrics.rows.increment();
+        }
+    }
+
+    /**
+     * The result is read or closed. Only the first call is recorded, and the statement is logged only if not logged when executed.
+     */
+    void finished() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        final long totalNanos = System.nanoTime() - started;
+        if (metrics != null) {
+            metrics.consume.record(totalNanos);
+        }
+        if (slowQueryNanos > 0 && totalNanos >= slowQueryNanos && logged.compareAndSet(false, true)) {
+            SlowQueryLog.log(this, executeNanos, totalNanos, null);
+        }
+    }
+
+    int getPages() {
+        return pages.get();
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the execution info of the first page, null if not received
+     */
+    ExecutionInfo getExecutionInfo() {
+        return executionInfo;
+    }
+}
@@ -0,0 +1,149 @@
+package com.wisecoders.dbschema.cassandra;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Statement metrics of one session, grouped by CQL fingerprint. Created only with the URL option <code>metrics=true</code>;
+ * otherwise the statements hold no metrics and record nothing. At most MAX_FINGERPRINTS fingerprints are kept, the other
+ * statements are counted together. The fingerprint of each query text is computed once.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+final class StatementMetrics implements StatementMetricsMXBean {
+
+    static final int MAX_FINGERPRINTS = 500;
+    static final String OTHER = "(other)";
+
+    // string literals, $$ string literals, quoted identifiers, blobs, uuids, booleans, numbers, whitespace
+    private static final Pattern TOKENS = Pattern.compile("'(?:[^']|'')*'|(?s:\\$\\$.*?\\$\\$)|(\"(?:[^\"]|\"\")*\")|\\b0[xX][0-9a-fA-F]*"
+            + "|\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b"
+            + "|\\b(?i:true|false)\\b|(?<![\\w.])-?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?\\b|(\\s+)");
+
+    private final ConcurrentMap<String, QueryMetrics> byQuery = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, QueryMetrics> byFingerprint = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    /**
+     * The metrics of the query fingerprint.
+     */
+    QueryMetrics get(String cql) {
+        QueryMetrics metrics = byQuery.get(cql);
+        if (metrics == null) {
+            metrics = forFingerprint(fingerprint(cql));
+            if (byQuery.size() < MAX_FINGERPRINTS * 4) {
+                byQuery.putIfAbsent(cql, metrics);
+            }
+        }
+        return metrics;
+    }
+
+    private QueryMetrics forFingerprint(String fingerprint) {
+        final QueryMetrics metrics = byFingerprint.get(fingerprint);
+        if (metrics != null) {
+            return metrics;
+        }
+        final String key = byFingerprint.size() < MAX_FINGERPRINTS ? fingerprint : OTHER;
+        return byFingerprint.computeIfAbsent(key, QueryMetrics::new);
+    }
+
+    /**
+     * The query with the literals replaced by <code>?</code>, the whitespace collapsed and without trailing semicolon.
+     */
+    static String fingerprint(String cql) {
+        if (cql == null) {
+            return OTHER;
+        }
+        final Matcher matcher = TOKENS.matcher(cql.trim());
+        final StringBuilder sb = new StringBuilder(cql.length());
+        while (matcher.find()) {
+            final String replacement = matcher.group(1) != null ? matcher.group(1) : matcher.group(2) != null ? " " : "?";
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sb);
+        int end = sb.length();
+        while (end > 0 && (sb.charAt(end - 1) == ';' || sb.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        return sb.substring(0, end);
+    }
+
+    /**
+     * Register the metrics in the platform MBean server. A failure is logged, the metrics are still recorded.
+     */
+    void register(String sessionName) {
+        try {
+            final ObjectName name = new ObjectName("com.wisecoders.dbschema.cassandra:type=StatementMetrics,session=" + ObjectName.quote(sessionName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(this, StatementMetricsMXBean.class, true), name);
+            objectName = name;
+        } catch (JMException ex) {
+            LOGGER.warning(() -> "Error registering the statement metrics: " + ex);
+        }
+    }
+
+    void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException ex) {
+            LOGGER.warning(() -> "Error unregistering the statement metrics: " + ex);
+        }
+        objectName = null;
+    }
+
+    ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public List<StatementStatistics> getStatements() {
+        final List<StatementStatistics> statements = new ArrayList<>();
+        for (QueryMetrics metrics : byFingerprint.values()) {
+            statements.add(metrics.toStatistics());
+        }
+        statements.sort(Comparator.comparingLong(StatementStatistics::getExecutions).reversed());
+        return statements;
+    }
+
+    @Override
+    public long getExecutions() {
+        return byFingerprint.values().stream().mapToLong(metrics -> metrics.execute.getCount()).sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return byFingerprint.values().stream().mapToLong(metrics -> metrics.errors.sum()).sum();
+    }
+
+    @Override
+    public long getRows() {
+        return byFingerprint.values().stream().mapToLong(metrics -> metrics.rows.sum()).sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return byFingerprint.values().stream().mapToLong(metrics -> metrics.bytes.sum()).sum();
+    }
+
+    @Override
+    public void reset() {
+        byQuery.clear();
+        byFingerprint.clear();
+    }
+}
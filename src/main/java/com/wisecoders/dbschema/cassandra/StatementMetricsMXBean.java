@@ -0,0 +1,31 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.List;
+
+/**
+ * Statement metrics of one session, registered as <code>com.wisecoders.dbschema.cassandra:type=StatementMetrics,session=...</code>
+ * when the URL option <code>metrics=true</code> is set.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+public interface StatementMetricsMXBean {
+
+    /**
+     * @return the metrics of each CQL fingerprint, the most executed first
+     */
+    List<StatementStatistics> getStatements();
+
+    long getExecutions();
+
+    long getErrors();
+
+    long getRows();
+
+    long getBytes();
+
+    /**
+     * Drop the collected metrics.
+     */
+    void reset();
+}
@@ -0,0 +1,165 @@
+package com.wisecoders.dbschema.cassandra;
+
+/**
+ * Snapshot of the metrics of one CQL fingerprint: the query text with the literals replaced by <code>?</code>.
+ * The latencies are in microseconds. Published as composite data by the StatementMetricsMXBean.
+ *
+ * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
+ * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
+ */
+public class StatementStatistics {
+
+    private final String fingerprint;
+    private final long executions;
+    private final long errors;
+    private final long rows;
+    private final long pages;
+    private final long bytes;
+    private final Latency execute;
+    private final Latency firstRow;
+    private final Latency pageFetch;
+    private final Latency consume;
+
+    StatementStatistics(String fingerprint, long executions, long errors, long rows, long pages, long bytes,
+                        Latency execute, Latency firstRow, Latency pageFetch, Latency consume) {
+        this.fingerprint = fingerprint;
+        this.executions = executions;
+        this.errors = errors;
+        this.rows = rows;
+        this.pages = pages;
+        this.bytes = bytes;
+        this.execute = execute;
+        this.firstRow = firstRow;
+        this.pageFetch = pageFetch;
+        this.consume = consume;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the successful executions
+     */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return the executions failed before receiving the first page
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the rows read from the result sets
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the pages received, including the first page
+     */
+    public long getPages() {
+        return pages;
+    }
+
+    /**
+     * @return the size of the responses received
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return from the execution to the first page
+     */
+    public Latency getExecute() {
+        return execute;
+    }
+
+    /**
+     * @return from the execution to the first row read from the result set
+     */
+    public Latency getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * @return the requests of the pages after the first one
+     */
+    public Latency getPageFetch() {
+        return pageFetch;
+    }
+
+    /**
+     * @return from the execution until the result set is read to the end or closed
+     */
+    public Latency getConsume() {
+        return consume;
+    }
+
+    /**
+     * Latency distribution in microseconds.
+     */
+    public static class Latency {
+
+        private final long count;
+        private final long mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Latency(long count, long mean, long p50, long p90, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        static Latency of(LatencyHistogram histogram) {
+            return new Latency(histogram.getCount(), micros(histogram.getMean()), micros(histogram.getValueAtPercentile(50)),
+                    micros(histogram.getValueAtPercentile(90)), micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)), micros(histogram.getMax()));
+        }
+
+        private static long micros(long nanos) {
+            return nanos / 1000;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -7,8 +7,11 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,7 +21,7 @@ import java.util.Map;
 
 public class ArrayResultSet implements ResultSet
 {
-	private Object[][] data = null;
+	private final List<Object[]> data = new ArrayList<>();
 
 	private String[] columnNames = null;
 
@@ -43,14 +46,10 @@ public class ArrayResultSet implements ResultSet
 	{
 		if (data != null && data.length > 0 && data[0] != null)
 		{
-			int numRows = data.length;
-			int numColumns = data[0].length;
-			this.data = new Object[numRows][numColumns];
-			for (int i = 0; i < numRows; i++)
+			for (Object[] row : data)
 			{
-				this.data[i] = Arrays.copyOf(data[i], data[i].length);
+				addRow(row);
 			}
-
 		}
 		this.columnNames = columnNames;
 	}
@@ -81,59 +80,41 @@ public class ArrayResultSet implements ResultSet
 
 	public void addResultSet(ArrayResultSet toCopy)
 	{
-		if ( toCopy.data == null || toCopy.data.length < 0 ) {
+		if ( toCopy.data.isEmpty() ) {
 			return;
 		}
-		if ( data == null )	{
-			data = new Object[toCopy.data.length][toCopy.data[0].length];
-			for (int i = 0; i < toCopy.data.length; i++ ) {
-				data[i] = Arrays.copyOf(toCopy.data[i], toCopy.data[i].length);
-			}
-		} else {
-			if (toCopy.data[0].length != data[0].length) {
-				throw new IllegalArgumentException("Array toCopy column length (" + toCopy.data[0].length
-						+ ") is not " + " the same as this result sets column length (" + toCopy.data[0].length + ")");
-			}
-			Object[][] newdata = new String[data.length + toCopy.data.length][data[0].length];
-			for (int i = 0; i < data.length; i++) {
-				newdata[i] = Arrays.copyOf(data[i], data[i].length);
-			}
-			for (int i = 0; i < toCopy.data.length; i++) {
-				newdata[data.length+i] = Arrays.copyOf(toCopy.data[i], toCopy.data[i].length);
-			}
-			data = newdata;
+		if ( !data.isEmpty() && toCopy.data.get(0).length != data.get(0).length ) {
+			throw new IllegalArgumentException("Array toCopy column length (" + toCopy.data.get(0).length
+					+ ") is not " + " the same as this result sets column length (" + data.get(0).length + ")");
+		}
+		for (Object[] row : toCopy.data) {
+			addRow(row);
 		}
 	}
 
 	/**
-	 * Add row to result set.
+	 * Add row to result set. The rows are kept in a growable list, so adding a row takes amortized constant time.
 	 * @param columnValues
 	 */
 	public void addRow(Object[] columnValues)
 	{
-		if (data == null) {
-			data = new Object[1][columnValues.length];
-			data[0] = Arrays.copyOf(columnValues, columnValues.length);
-		} else {
-			int numRows = data.length;
-			Object[][] newdata = new Object[numRows + 1][data[0].length];
-			for (int i = 0; i < numRows; i++)
-			{
-				newdata[i] = Arrays.copyOf(data[i], data[i].length);
-			}
-			newdata[numRows] = Arrays.copyOf(columnValues, columnValues.length);
-			data = newdata;
-		}
+		data.add(Arrays.copyOf(columnValues, columnValues.length));
+	}
+
+	/**
+	 * Add rows to result set without copying them. The rows may be shared with other result sets, so they must not be modified.
+	 * @param rows
+	 */
+	public void addRows(Collection<? extends Object[]> rows)
+	{
+		data.addAll(rows);
 	}
 
 	/**
 	 * @return number of rows
 	 */
 	public int getRowCount() {
-		if (data == null) {
-			return 0;
-		}
-		return data.length;
+		return data.size();
 	}
 
 	public <T> T unwrap(Class<T> iface) throws SQLException	{
@@ -148,10 +129,7 @@ public class ArrayResultSet implements ResultSet
 	 * @see ResultSet#next()
 	 */
 	public boolean next() throws SQLException {
-		if (data == null) {
-			return false;
-		}
-		if (currentRow < data.length - 1) {
+		if (currentRow < data.size() - 1) {
 			currentRow++;
 			return true;
 		}
@@ -174,14 +152,14 @@ public class ArrayResultSet implements ResultSet
 	}
 
 	public String getString(int columnIndex) throws SQLException {
-		if (currentRow >= data.length) {
+		if (currentRow < 0 || currentRow >= data.size()) {
 			throw new SQLException("ResultSet exhausted, request currentRow = " + currentRow);
 		}
 		int adjustedColumnIndex = columnIndex - 1;
-		if (adjustedColumnIndex >= data[currentRow].length)	{
+		if (adjustedColumnIndex >= data.get(currentRow).length)	{
 			throw new SQLException("Column index does not exist: " + columnIndex);
 		}
-		final Object val = data[currentRow][adjustedColumnIndex];
+		final Object val = data.get(currentRow)[adjustedColumnIndex];
 		return val != null ? val.toString() : null;
 	}
 
@@ -537,16 +515,16 @@ public class ArrayResultSet implements ResultSet
 	}
 
 	public Object getObject(int columnIndex) throws SQLException {
-		if (currentRow >= data.length)
+		if (currentRow < 0 || currentRow >= data.size())
 		{
 			throw new SQLException("ResultSet exhausted, request currentRow = " + currentRow);
 		}
 		int adjustedColumnIndex = columnIndex - 1;
-		if (adjustedColumnIndex >= data[currentRow].length)
+		if (adjustedColumnIndex >= data.get(currentRow).length)
 		{
 			throw new SQLException("Column index does not exist: " + columnIndex);
 		}
-		return data[currentRow][adjustedColumnIndex];
+		return data.get(currentRow)[adjustedColumnIndex];
 	}
 
 	public Object getObject(String columnLabel) throws SQLException
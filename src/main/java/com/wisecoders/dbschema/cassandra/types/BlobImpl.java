@@ -2,47 +2,105 @@ package com.wisecoders.dbschema.cassandra.types;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.sql.Blob;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 
 /**
+ * Read-only Blob backed by the ByteBuffer received from the server. The bytes are not copied, except by getBytes().
+ * Use getByteBuffer() to read the value without any copy.
+ *
  * Licensed under <a href="https://creativecommons.org/licenses/by-nd/4.0/">CC BY-ND 4.0 DEED</a>, copyright <a href="https://wisecoders.com">Wise Coders GmbH</a>, used by <a href="https://dbschema.com">DbSchema Database Designer</a>.
  * Code modifications allowed only as pull requests to the <a href="https://github.com/wise-coders/cassandra-jdbc-driver">public GIT repository</a>.
  */
 
 public class BlobImpl implements Blob {
-    private byte[] bytes;
+    private ByteBuffer buffer;
 
     public BlobImpl(byte[] bytes) {
-        this.bytes = bytes;
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * The blob content are the bytes between the buffer position and limit.
+     */
+    public BlobImpl(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    private ByteBuffer buffer() throws SQLException {
+        if (buffer == null) {
+            throw new SQLException("Blob was freed.");
+        }
+        return buffer;
+    }
+
+    /**
+     * Gets the blob content without copying it. The returned buffer shares the content with this blob, but has its own position and limit.
+     *
+     * @return a read-only buffer
+     */
+    public ByteBuffer getByteBuffer() throws SQLException {
+        return buffer().asReadOnlyBuffer();
     }
 
     @Override
-    public long length() {
-        return bytes.length;
+    public long length() throws SQLException {
+        return buffer().remaining();
     }
 
     @Override
-    public byte[] getBytes(long pos, int length) {
-        byte[] newBytes = new byte[length];
-        System.arraycopy(bytes, (int) pos - 1, newBytes, 0, length);
+    public byte[] getBytes(long pos, int length) throws SQLException {
+        final ByteBuffer range = slice(pos, length);
+        final byte[] newBytes = new byte[range.remaining()];
+        range.get(newBytes);
         return newBytes;
     }
 
     @Override
     public InputStream getBinaryStream() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return new ByteBufferInputStream(buffer().duplicate());
+    }
+
+    @Override
+    public InputStream getBinaryStream(long pos, long length) throws SQLException {
+        return new ByteBufferInputStream(slice(pos, length));
+    }
+
+    private ByteBuffer slice(long pos, long length) throws SQLException {
+        final ByteBuffer source = buffer();
+        if (pos < 1 || pos > source.remaining() + 1 || length < 0) {
+            throw new SQLException("Invalid position " + pos + " or length " + length + " for a blob of length " + source.remaining());
+        }
+        final ByteBuffer range = source.duplicate();
+        range.position((int) pos - 1);
+        range.limit((int) Math.min(source.remaining(), pos - 1 + length));
+        return range.slice();
     }
 
     @Override
     public long position(byte[] pattern, long start) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        final ByteBuffer source = buffer();
+        if (start < 1) {
+            throw new SQLException("Invalid start position " + start);
+        }
+        final int last = source.remaining() - pattern.length;
+        search:
+        for (int i = (int) start - 1; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (source.get(i + j) != pattern[j]) {
+                    continue search;
+                }
+            }
+            return i + 1;
+        }
+        return -1;
     }
 
     @Override
     public long position(Blob pattern, long start) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return position(pattern.getBytes(1, (int) pattern.length()), start);
     }
 
     @Override
@@ -67,11 +125,6 @@ public class BlobImpl implements Blob {
 
     @Override
     public void free() {
-        bytes = null;
-    }
-
-    @Override
-    public InputStream getBinaryStream(long pos, long length) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        buffer = null;
     }
 }
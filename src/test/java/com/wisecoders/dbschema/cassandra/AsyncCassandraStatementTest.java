@@ -0,0 +1,187 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class AsyncCassandraStatementTest {
+
+    private static AsyncResultSet page(CompletableFuture<AsyncResultSet> next, String... columns) {
+        return page(next, Arrays.asList(mock(Row.class)), columns);
+    }
+
+    private static AsyncResultSet page(CompletableFuture<AsyncResultSet> next, List<Row> rows, String... columns) {
+        AsyncResultSet page = mock(AsyncResultSet.class);
+        when(page.currentPage()).thenReturn(rows);
+        ColumnDefinitions columnDefinitions = CassandraResultSetTest.columns(columns);
+        when(page.getColumnDefinitions()).thenReturn(columnDefinitions);
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        when(page.getExecutionInfo()).thenReturn(executionInfo);
+        when(page.hasMorePages()).thenReturn(next != null);
+        if (next != null) {
+            when(page.fetchNextPage()).thenReturn(next);
+        }
+        return page;
+    }
+
+    @Test
+    public void testQueryCompletesWithoutBlocking() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> firstPage = new CompletableFuture<>();
+        CompletableFuture<AsyncResultSet> secondPage = new CompletableFuture<>();
+        doReturn(firstPage).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(CassandraResultSetTest.mockConnection(session, "jdbc:cassandra://localhost"));
+
+        assertTrue(statement.isWrapperFor(AsyncCassandraStatement.class));
+        CompletionStage<ResultSet> stage = statement.unwrap(AsyncCassandraStatement.class).executeQueryAsync("SELECT * FROM t");
+        assertFalse(stage.toCompletableFuture().isDone());
+        firstPage.complete(page(secondPage, "id"));
+
+        CassandraResultSet rs = stage.toCompletableFuture().getNow(null).unwrap(CassandraResultSet.class);
+        assertSame(rs, statement.getResultSet());
+        assertTrue(rs.next());
+        CompletableFuture<Void> fetched = rs.fetchAsync().toCompletableFuture();
+        assertFalse(fetched.isDone());
+        secondPage.complete(page(null, "id"));
+        assertTrue(fetched.isDone());
+        assertTrue(rs.next());
+        assertTrue(rs.fetchAsync().toCompletableFuture().isDone());
+        assertFalse(rs.next());
+    }
+
+    @Test
+    public void testErrorsAreSQLExceptions() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> failed = new CompletableFuture<>();
+        failed.completeExceptionally(mock(SyntaxError.class));
+        doReturn(failed).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(CassandraResultSetTest.mockConnection(session, "jdbc:cassandra://localhost"));
+        try {
+            statement.executeQueryAsync("SELEC * FROM t").toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof SQLSyntaxErrorException);
+        }
+
+        doReturn(CompletableFuture.completedFuture(page(null, "id"))).when(session).executeAsync(any(Statement.class));
+        try {
+            statement.executeUpdateAsync("SELECT * FROM t").toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException ex) {
+            assertEquals("Not an update statement", ex.getCause().getMessage());
+        }
+        doReturn(CompletableFuture.completedFuture(page(null))).when(session).executeAsync(any(Statement.class));
+        assertEquals(Integer.valueOf(1), statement.executeUpdateAsync("INSERT INTO t (id) VALUES (1)").toCompletableFuture().get());
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Row> {
+        final List<Row> rows = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Row row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    public void testPublisherReadsPagesOnDemand() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> secondPage = new CompletableFuture<>();
+        Row row1 = mock(Row.class), row2 = mock(Row.class), row3 = mock(Row.class);
+        AsyncResultSet first = page(secondPage, Arrays.asList(row1, row2), "id");
+        doReturn(CompletableFuture.completedFuture(first)).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(CassandraResultSetTest.mockConnection(session, "jdbc:cassandra://localhost"));
+
+        Flow.Publisher<Row> publisher = statement.unwrap(AsyncCassandraStatement.class).publishQuery("SELECT * FROM t");
+        verify(session, never()).executeAsync(any(Statement.class));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.rows.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList(row1, row2), subscriber.rows);
+        verify(first, never()).fetchNextPage();
+
+        subscriber.subscription.request(5);
+        verify(first).fetchNextPage();
+        assertEquals(2, subscriber.rows.size());
+        secondPage.complete(page(null, Arrays.asList(row3), "id"));
+        assertEquals(Arrays.asList(row1, row2, row3), subscriber.rows);
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testPublisherCancelAndErrors() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> secondPage = new CompletableFuture<>();
+        AsyncResultSet first = page(secondPage, "id");
+        doReturn(CompletableFuture.completedFuture(first)).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(CassandraResultSetTest.mockConnection(session, "jdbc:cassandra://localhost"));
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        statement.publishQuery("SELECT * FROM t").subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        verify(first, never()).fetchNextPage();
+        assertEquals(1, subscriber.rows.size());
+        assertFalse(subscriber.completed);
+
+        subscriber = new RecordingSubscriber();
+        statement.publishQuery("SELECT * FROM t").subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+
+        CompletableFuture<AsyncResultSet> failed = new CompletableFuture<>();
+        failed.completeExceptionally(mock(SyntaxError.class));
+        doReturn(failed).when(session).executeAsync(any(Statement.class));
+        subscriber = new RecordingSubscriber();
+        statement.publishQuery("SELEC * FROM t").subscribe(subscriber);
+        assertTrue(subscriber.error instanceof SQLSyntaxErrorException);
+        assertTrue(subscriber.rows.isEmpty());
+    }
+}
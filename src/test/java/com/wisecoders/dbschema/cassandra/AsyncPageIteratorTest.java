@@ -0,0 +1,106 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class AsyncPageIteratorTest {
+
+    private static AsyncResultSet page(int responseSize, CompletableFuture<AsyncResultSet> next) {
+        AsyncResultSet page = mock(AsyncResultSet.class);
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        when(executionInfo.getResponseSizeInBytes()).thenReturn(responseSize);
+        when(page.getExecutionInfo()).thenReturn(executionInfo);
+        when(page.currentPage()).thenReturn(Collections.singletonList(mock(Row.class)));
+        when(page.hasMorePages()).thenReturn(next != null);
+        if (next != null) {
+            when(page.fetchNextPage()).thenReturn(next);
+        }
+        return page;
+    }
+
+    @Test
+    public void testReadsAhead() {
+        CompletableFuture<AsyncResultSet> third = new CompletableFuture<>();
+        AsyncResultSet thirdPage = page(10, null);
+        CompletableFuture<AsyncResultSet> second = new CompletableFuture<>();
+        AsyncResultSet secondPage = page(10, third);
+        AsyncResultSet firstPage = page(10, second);
+
+        AsyncPageIterator iterator = new AsyncPageIterator(mock(CqlSession.class), SimpleStatement.newInstance("SELECT * FROM t"), firstPage, 1, 1000);
+        verify(firstPage).fetchNextPage();
+        second.complete(secondPage);
+        // only one page is buffered ahead
+        verify(secondPage, never()).fetchNextPage();
+
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        verify(secondPage).fetchNextPage();
+        third.complete(thirdPage);
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testMemoryCapStopsReadAhead() {
+        CompletableFuture<AsyncResultSet> third = new CompletableFuture<>();
+        CompletableFuture<AsyncResultSet> second = new CompletableFuture<>();
+        AsyncResultSet secondPage = page(5000, third);
+        AsyncResultSet firstPage = page(5000, second);
+
+        AsyncPageIterator iterator = new AsyncPageIterator(mock(CqlSession.class), SimpleStatement.newInstance("SELECT * FROM t"), firstPage, 10, 1000);
+        second.complete(secondPage);
+        verify(secondPage, never()).fetchNextPage();
+        iterator.next();
+        iterator.next();
+        verify(secondPage).fetchNextPage();
+        iterator.close();
+        assertTrue(third.isCancelled());
+    }
+
+    @Test
+    public void testNoReadAheadFetchesOnDemand() {
+        CompletableFuture<AsyncResultSet> second = CompletableFuture.completedFuture(page(10, null));
+        AsyncResultSet firstPage = page(10, second);
+        AsyncPageIterator iterator = new AsyncPageIterator(mock(CqlSession.class), SimpleStatement.newInstance("SELECT * FROM t"), firstPage, 0, 1000);
+        verify(firstPage, never()).fetchNextPage();
+        iterator.next();
+        assertTrue(iterator.hasNext());
+        verify(firstPage).fetchNextPage();
+    }
+
+    @Test
+    public void testFailureIsThrownToConsumer() {
+        CompletableFuture<AsyncResultSet> second = new CompletableFuture<>();
+        AsyncPageIterator iterator = new AsyncPageIterator(mock(CqlSession.class), SimpleStatement.newInstance("SELECT * FROM t"), page(10, second), 1, 1000);
+        ReadTimeoutException error = mock(ReadTimeoutException.class);
+        second.completeExceptionally(error);
+        iterator.next();
+        try {
+            iterator.hasNext();
+            fail();
+        } catch (CompletionException ex) {
+            assertSame(error, ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.time.TimestampGenerator;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.sql.BatchUpdateException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class BatchExecutorTest {
+
+    private static final CqlIdentifier KEYSPACE = CqlIdentifier.fromCql("ks");
+
+    private static CqlSession session(TokenMap tokenMap) {
+        CqlSession session = mock(CqlSession.class);
+        Metadata metadata = mock(Metadata.class);
+        when(metadata.getTokenMap()).thenReturn(Optional.ofNullable(tokenMap));
+        when(session.getMetadata()).thenReturn(metadata);
+        DriverContext context = mock(DriverContext.class);
+        when(context.getProtocolVersion()).thenReturn(DefaultProtocolVersion.V4);
+        when(context.getCodecRegistry()).thenReturn(CodecRegistry.DEFAULT);
+        when(context.getTimestampGenerator()).thenReturn(mock(TimestampGenerator.class));
+        when(session.getContext()).thenReturn(context);
+        return session;
+    }
+
+    private static SimpleStatement insert(String partitionKey) {
+        SimpleStatement statement = SimpleStatement.newInstance("INSERT INTO ks.t (id, value) VALUES ('" + partitionKey + "', 'some value')");
+        if (partitionKey != null) {
+            statement = statement.setRoutingKeyspace(KEYSPACE).setRoutingKey(ByteBuffer.wrap(partitionKey.getBytes()));
+        }
+        return statement;
+    }
+
+    private static AsyncResultSet applied(boolean applied) {
+        AsyncResultSet result = mock(AsyncResultSet.class);
+        when(result.wasApplied()).thenReturn(applied);
+        return result;
+    }
+
+    @Test
+    public void testLoggedBatch() throws Exception {
+        CqlSession session = session(null);
+        AsyncResultSet result = applied(true);
+        doReturn(CompletableFuture.completedFuture(result)).when(session).executeAsync(any(Statement.class));
+        List<BatchableStatement<?>> statements = Arrays.asList(insert("a"), insert("b"));
+        int[] updateCounts = new BatchExecutor(session, BatchMode.LOGGED, 0, 4).execute(statements);
+        assertArrayEquals(new int[]{java.sql.Statement.SUCCESS_NO_INFO, java.sql.Statement.SUCCESS_NO_INFO}, updateCounts);
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session).executeAsync(captor.capture());
+        assertEquals(BatchType.LOGGED, ((BatchStatement) captor.getValue()).getBatchType());
+        assertEquals(2, ((BatchStatement) captor.getValue()).size());
+    }
+
+    @Test
+    public void testGroupByPartitionWithoutTokenMap() {
+        BatchExecutor executor = new BatchExecutor(session(null), BatchMode.UNLOGGED, 0, 4);
+        List<List<Integer>> chunks = executor.split(Arrays.asList(insert("a"), insert("b"), insert("a"), insert(null)));
+        assertEquals(Arrays.asList(Arrays.asList(0, 2), Collections.singletonList(1), Collections.singletonList(3)), chunks);
+    }
+
+    @Test
+    public void testGroupByReplicaSet() {
+        TokenMap tokenMap = mock(TokenMap.class);
+        Node node1 = mock(Node.class), node2 = mock(Node.class);
+        when(tokenMap.newToken(any(ByteBuffer[].class))).thenAnswer(invocation -> new Murmur3Token(((ByteBuffer) invocation.getArgument(0)).get(0)));
+        when(tokenMap.getReplicas(eq(KEYSPACE), eq(new Murmur3Token('a')))).thenReturn(new HashSet<>(Arrays.asList(node1, node2)));
+        when(tokenMap.getReplicas(eq(KEYSPACE), eq(new Murmur3Token('b')))).thenReturn(new HashSet<>(Arrays.asList(node2, node1)));
+        when(tokenMap.getReplicas(eq(KEYSPACE), eq(new Murmur3Token('c')))).thenReturn(Collections.singleton(node1));
+
+        BatchExecutor executor = new BatchExecutor(session(tokenMap), BatchMode.UNLOGGED, 0, 4);
+        List<List<Integer>> chunks = executor.split(Arrays.asList(insert("a"), insert("c"), insert("b")));
+        assertEquals(Arrays.asList(Arrays.asList(0, 2), Collections.singletonList(1)), chunks);
+    }
+
+    @Test
+    public void testSplitBySize() {
+        CqlSession session = session(null);
+        SimpleStatement statement = insert("a");
+        int size = statement.computeSizeInBytes(session.getContext());
+        BatchExecutor executor = new BatchExecutor(session, BatchMode.UNLOGGED, size * 2, 4);
+        List<List<Integer>> chunks = executor.split(Arrays.asList(insert("a"), insert("a"), insert("a"), insert("a"), insert("a")));
+        assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3), Collections.singletonList(4)), chunks);
+    }
+
+    private static SimpleStatement routed(String cql, String partitionKey) {
+        return SimpleStatement.newInstance(cql).setRoutingKeyspace(KEYSPACE).setRoutingKey(ByteBuffer.wrap(partitionKey.getBytes()));
+    }
+
+    private static BoundStatement bound(boolean conditional, DataType variableType) {
+        ColumnDefinitions resultDefinitions = mock(ColumnDefinitions.class);
+        when(resultDefinitions.contains(CqlIdentifier.fromInternal("[applied]"))).thenReturn(conditional);
+        ColumnDefinition variable = mock(ColumnDefinition.class);
+        when(variable.getType()).thenReturn(variableType);
+        ColumnDefinitions variableDefinitions = mock(ColumnDefinitions.class);
+        when(variableDefinitions.iterator()).thenAnswer(invocation -> Collections.singletonList(variable).iterator());
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getResultSetDefinitions()).thenReturn(resultDefinitions);
+        when(prepared.getVariableDefinitions()).thenReturn(variableDefinitions);
+        when(prepared.getQuery()).thenReturn("UPDATE ks.t SET value = ? WHERE id = 'a'");
+        BoundStatement statement = mock(BoundStatement.class);
+        when(statement.getPreparedStatement()).thenReturn(prepared);
+        when(statement.getRoutingKeyspace()).thenReturn(KEYSPACE);
+        when(statement.getRoutingKey()).thenReturn(ByteBuffer.wrap("a".getBytes()));
+        return statement;
+    }
+
+    @Test
+    public void testConditionalStatementsAreSentAlone() throws Exception {
+        CqlSession session = session(null);
+        SimpleStatement conditional = routed("INSERT INTO ks.t (id, value) VALUES ('a', 'x') IF NOT EXISTS", "a");
+        BoundStatement preparedConditional = bound(true, DataTypes.TEXT);
+        BatchExecutor executor = new BatchExecutor(session, BatchMode.UNLOGGED, 0, 4);
+        assertEquals(Arrays.asList(Arrays.asList(0, 3, 4), Collections.singletonList(1), Collections.singletonList(2)),
+                executor.split(Arrays.asList(insert("a"), conditional, preparedConditional, insert("a"), bound(false, DataTypes.TEXT))));
+
+        doReturn(CompletableFuture.completedFuture(applied(true))).when(session).executeAsync(any(Statement.class));
+        doReturn(CompletableFuture.completedFuture(applied(false))).when(session).executeAsync(conditional);
+        int[] updateCounts = executor.execute(Arrays.asList(insert("a"), conditional, insert("a")));
+        assertArrayEquals(new int[]{java.sql.Statement.SUCCESS_NO_INFO, 0, java.sql.Statement.SUCCESS_NO_INFO}, updateCounts);
+        verify(session).executeAsync(conditional);
+    }
+
+    @Test
+    public void testCounterUpdatesAreBatchedApart() throws Exception {
+        CqlSession session = session(null);
+        doReturn(CompletableFuture.completedFuture(applied(true))).when(session).executeAsync(any(Statement.class));
+        List<BatchableStatement<?>> statements = Arrays.asList(insert("a"),
+                routed("UPDATE ks.hits SET \"Count\" = \"Count\" + 1 WHERE id = 'a'", "a"),
+                bound(false, DataTypes.COUNTER),
+                insert("a"));
+        BatchExecutor executor = new BatchExecutor(session, BatchMode.UNLOGGED, 0, 4);
+        assertEquals(Arrays.asList(Arrays.asList(0, 3), Arrays.asList(1, 2)), executor.split(statements));
+        assertFalse(BatchExecutor.isCounter(SimpleStatement.newInstance("UPDATE ks.t SET tags = tags + {'a'} WHERE id = 'a'")));
+
+        executor.execute(statements);
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session, times(2)).executeAsync(captor.capture());
+        assertEquals(BatchType.UNLOGGED, ((BatchStatement) captor.getAllValues().get(0)).getBatchType());
+        assertEquals(BatchType.COUNTER, ((BatchStatement) captor.getAllValues().get(1)).getBatchType());
+    }
+
+    @Test
+    public void testFailedGroupIsReported() {
+        CqlSession session = session(null);
+        SimpleStatement failing = insert("b");
+        WriteTimeoutException error = mock(WriteTimeoutException.class);
+        CompletableFuture<AsyncResultSet> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        doReturn(CompletableFuture.completedFuture(applied(true))).when(session).executeAsync(any(Statement.class));
+        doReturn(failed).when(session).executeAsync(failing);
+
+        try {
+            new BatchExecutor(session, BatchMode.UNLOGGED, 0, 4).execute(Arrays.asList(insert("a"), failing, insert("a")));
+            fail();
+        } catch (BatchUpdateException ex) {
+            assertSame(error, ex.getCause());
+            assertArrayEquals(new int[]{java.sql.Statement.SUCCESS_NO_INFO, java.sql.Statement.EXECUTE_FAILED, java.sql.Statement.SUCCESS_NO_INFO}, ex.getUpdateCounts());
+        }
+    }
+
+    @Test
+    public void testFanOutLimitsRequestsInFlight() throws Exception {
+        CqlSession session = session(null);
+        SimpleStatement notApplied = SimpleStatement.newInstance("INSERT INTO ks.t (id) VALUES ('b') IF NOT EXISTS");
+        AtomicInteger inFlight = new AtomicInteger(), maxInFlight = new AtomicInteger();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            doAnswer(invocation -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                CompletableFuture<AsyncResultSet> future = new CompletableFuture<>();
+                boolean wasApplied = invocation.getArgument(0) != notApplied;
+                executor.schedule(() -> {
+                    inFlight.decrementAndGet();
+                    future.complete(applied(wasApplied));
+                }, 10, TimeUnit.MILLISECONDS);
+                return future;
+            }).when(session).executeAsync(any(Statement.class));
+
+            int[] updateCounts = new BatchExecutor(session, BatchMode.FANOUT, 0, 2)
+                    .execute(Arrays.asList(insert("a"), notApplied, insert("a"), insert("c"), insert("d")));
+            assertArrayEquals(new int[]{java.sql.Statement.SUCCESS_NO_INFO, 0, java.sql.Statement.SUCCESS_NO_INFO,
+                    java.sql.Statement.SUCCESS_NO_INFO, java.sql.Statement.SUCCESS_NO_INFO}, updateCounts);
+            assertEquals(2, maxInFlight.get());
+            assertEquals(0, inFlight.get());
+            verify(session, times(5)).executeAsync(any(Statement.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchModeOption() {
+        assertEquals(BatchMode.LOGGED, new CassandraClientURI("jdbc:cassandra://localhost", null).getBatchMode());
+        assertEquals(BatchMode.UNLOGGED, new CassandraClientURI("jdbc:cassandra://localhost?batchmode=unlogged", null).getBatchMode());
+        CassandraClientURI fanOut = new CassandraClientURI("jdbc:cassandra://localhost?batchmode=FanOut&batchconcurrency=128", null);
+        assertEquals(BatchMode.FANOUT, fanOut.getBatchMode());
+        assertEquals(128, fanOut.getBatchConcurrency());
+    }
+}
@@ -59,6 +59,13 @@ public class CassandraClientURITest {
     }
 
 
+    @Test
+    public void testPrefetchMaxBytesAboveIntRange() {
+        assertEquals(64 * 1024 * 1024, new CassandraClientURI("jdbc:cassandra://localhost:9042", null).getPrefetchMaxBytes());
+        CassandraClientURI uri = new CassandraClientURI("jdbc:cassandra://localhost:9042/?prefetchmaxbytes=8589934592", null);
+        assertEquals(8L * 1024 * 1024 * 1024, uri.getPrefetchMaxBytes());
+    }
+
     @Test
     public void testSslEnabledOptionTrue() throws GeneralSecurityException, IOException {
         Properties properties = new Properties();
@@ -0,0 +1,119 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchableStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CassandraPreparedStatementTest {
+
+    private static PreparedStatement prepared(ColumnDefinitions variables) {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getVariableDefinitions()).thenReturn(variables);
+        when(prepared.boundStatementBuilder()).thenAnswer(invocation -> {
+            ByteBuffer[] values = new ByteBuffer[variables.size()];
+            Arrays.fill(values, ProtocolConstants.UNSET_VALUE);
+            return new BoundStatementBuilder(prepared, variables, values, null, null, null, null, null, Collections.emptyMap(),
+                    null, false, Statement.NO_DEFAULT_TIMESTAMP, null, 0, null, null, null, CodecRegistry.DEFAULT, DefaultProtocolVersion.V4);
+        });
+        return prepared;
+    }
+
+    private static CassandraPreparedStatement statement(CqlSession session, PreparedStatement prepared) {
+        return new CassandraPreparedStatement(CassandraResultSetTest.mockConnection(session, "jdbc:cassandra://localhost"), prepared, true);
+    }
+
+    @Test
+    public void testTypedParameters() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        AsyncResultSet result = mock(AsyncResultSet.class);
+        ColumnDefinitions noColumns = CassandraResultSetTest.columns();
+        when(result.getColumnDefinitions()).thenReturn(noColumns);
+        when(result.currentPage()).thenReturn(Collections.emptyList());
+        doReturn(CompletableFuture.completedFuture(result)).when(session).executeAsync(any(Statement.class));
+        CassandraPreparedStatement statement = statement(session, prepared(CassandraResultSetMetaDataTest.columns(
+                DataTypes.INT, DataTypes.BIGINT, DataTypes.TEXT, DataTypes.DOUBLE, DataTypes.UUID, DataTypes.BOOLEAN)));
+
+        UUID id = UUID.randomUUID();
+        statement.setInt(1, 7);
+        // widened to the bigint variable
+        statement.setInt(2, 8);
+        statement.setString(3, "text");
+        statement.setDouble(4, 1.5);
+        statement.setObject(5, id);
+        statement.executeUpdate();
+
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session).executeAsync(captor.capture());
+        BoundStatement bound = (BoundStatement) captor.getValue();
+        assertEquals(7, bound.getInt(0));
+        assertEquals(8L, bound.getLong(1));
+        assertEquals("text", bound.getString(2));
+        assertEquals(1.5, bound.getDouble(3), 0);
+        assertEquals(id, bound.getUuid(4));
+        // not set, bound to null like bind(Object...) does
+        assertTrue(bound.isSet(5));
+        assertTrue(bound.isNull(5));
+    }
+
+    @Test
+    public void testBatchRowsDoNotShareValues() throws Exception {
+        PreparedStatement prepared = prepared(CassandraResultSetMetaDataTest.columns(DataTypes.BIGINT, DataTypes.ASCII));
+        CassandraPreparedStatement statement = statement(mock(CqlSession.class), prepared);
+        statement.setLong(1, 1L);
+        statement.setString(2, "a");
+        statement.addBatch();
+        statement.setLong(1, 2L);
+        statement.setNull(2, java.sql.Types.VARCHAR);
+        statement.addBatch();
+
+        assertEquals(2, statement.batchStatements.size());
+        BatchableStatement<?> first = statement.batchStatements.get(0);
+        BatchableStatement<?> second = statement.batchStatements.get(1);
+        assertEquals(1L, ((BoundStatement) first).getLong(0));
+        assertEquals("a", ((BoundStatement) first).getString(1));
+        assertEquals(2L, ((BoundStatement) second).getLong(0));
+        assertTrue(((BoundStatement) second).isNull(1));
+        verify(prepared, times(1)).getVariableDefinitions();
+
+        try {
+            statement.setInt(3, 1);
+            fail();
+        } catch (SQLException ex) {
+            assertTrue(ex.getMessage().contains("out of range"));
+        }
+        try {
+            statement.setObject(2, new Object());
+            fail();
+        } catch (SQLException ex) {
+            // no codec for the value
+        }
+    }
+}
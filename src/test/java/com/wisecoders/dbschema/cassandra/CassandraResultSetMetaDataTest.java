@@ -0,0 +1,82 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CassandraResultSetMetaDataTest {
+
+    static ColumnDefinitions columns(DataType... types) {
+        List<ColumnDefinition> list = new ArrayList<>();
+        ColumnDefinitions columnDefinitions = mock(ColumnDefinitions.class);
+        for (int i = 0; i < types.length; i++) {
+            ColumnDefinition column = mock(ColumnDefinition.class);
+            when(column.getName()).thenReturn(CqlIdentifier.fromInternal("c" + i));
+            when(column.getTable()).thenReturn(CqlIdentifier.fromInternal("t"));
+            when(column.getKeyspace()).thenReturn(CqlIdentifier.fromInternal("ks"));
+            when(column.getType()).thenReturn(types[i]);
+            when(columnDefinitions.get(i)).thenReturn(column);
+            list.add(column);
+        }
+        when(columnDefinitions.size()).thenReturn(types.length);
+        when(columnDefinitions.iterator()).thenAnswer(invocation -> list.iterator());
+        return columnDefinitions;
+    }
+
+    @Test
+    public void testTypesFromProtocolCode() throws Exception {
+        ResultSetMetaData metaData = CassandraResultSetMetaData.of(columns(DataTypes.TEXT, DataTypes.ASCII, DataTypes.TIMESTAMP,
+                DataTypes.listOf(DataTypes.INT), DataTypes.setOf(DataTypes.TEXT), DataTypes.custom("org.example.MyType")));
+        assertEquals(6, metaData.getColumnCount());
+        assertEquals("c0", metaData.getColumnName(1));
+        assertEquals("t", metaData.getTableName(1));
+        assertEquals("ks", metaData.getCatalogName(1));
+        assertEquals(Types.VARCHAR, metaData.getColumnType(1));
+        assertEquals("java.lang.String", metaData.getColumnClassName(1));
+        assertEquals(Types.VARCHAR, metaData.getColumnType(2));
+        assertEquals(Types.TIMESTAMP, metaData.getColumnType(3));
+        assertEquals(3, metaData.getScale(3));
+        assertEquals("java.util.List", metaData.getColumnClassName(4));
+        assertEquals("java.util.Set", metaData.getColumnClassName(5));
+        assertEquals(Types.OTHER, metaData.getColumnType(6));
+        assertEquals("java.lang.Object", metaData.getColumnClassName(6));
+    }
+
+    @Test
+    public void testPreparedStatementSharesMetaData() throws Exception {
+        ColumnDefinitions columnDefinitions = columns(DataTypes.INT, DataTypes.TEXT);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getResultSetDefinitions()).thenReturn(columnDefinitions);
+        CassandraConnection connection = CassandraResultSetTest.mockConnection(mock(CqlSession.class), "jdbc:cassandra://localhost");
+        CassandraPreparedStatement statement = new CassandraPreparedStatement(connection, prepared, true);
+
+        ResultSetMetaData metaData = statement.getMetaData();
+        assertEquals(2, metaData.getColumnCount());
+        assertSame(metaData, statement.getResultSetMetaData(columnDefinitions));
+        assertSame(metaData, statement.getMetaData());
+        assertNotSame(metaData, statement.getResultSetMetaData(columns(DataTypes.INT)));
+
+        ColumnDefinitions noColumns = columns();
+        when(prepared.getResultSetDefinitions()).thenReturn(noColumns);
+        assertNull(statement.getMetaData());
+    }
+}
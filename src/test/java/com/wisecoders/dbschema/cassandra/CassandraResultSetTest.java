@@ -0,0 +1,302 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CassandraResultSetTest {
+
+    private static AsyncResultSet asyncPage(Row... rows) {
+        AsyncResultSet page = mock(AsyncResultSet.class);
+        when(page.currentPage()).thenReturn(java.util.Arrays.asList(rows));
+        ColumnDefinitions columnDefinitions = columns("id");
+        when(page.getColumnDefinitions()).thenReturn(columnDefinitions);
+        return page;
+    }
+
+    private static AsyncResultSet asyncPage(ByteBuffer pagingState, Row... rows) {
+        AsyncResultSet page = asyncPage(rows);
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        when(executionInfo.getPagingState()).thenReturn(pagingState);
+        when(page.getExecutionInfo()).thenReturn(executionInfo);
+        when(page.hasMorePages()).thenReturn(pagingState != null);
+        return page;
+    }
+
+    private static CassandraResultSet resultSet(CassandraStatement statement, CqlSession session, AsyncResultSet firstPage) {
+        return resultSet(statement, session, SimpleStatement.newInstance("SELECT * FROM t"), firstPage);
+    }
+
+    private static CassandraResultSet resultSet(CassandraStatement statement, CqlSession session, Statement<?> executed, AsyncResultSet firstPage) {
+        return new CassandraResultSet(statement, new AsyncPageIterator(session, executed, firstPage, 0, 0), true);
+    }
+
+    static ColumnDefinitions columns(String... names) {
+        ColumnDefinitions columnDefinitions = mock(ColumnDefinitions.class);
+        when(columnDefinitions.size()).thenReturn(names.length);
+        for (int i = 0; i < names.length; i++) {
+            ColumnDefinition column = mock(ColumnDefinition.class);
+            when(column.getName()).thenReturn(CqlIdentifier.fromInternal(names[i]));
+            when(columnDefinitions.get(i)).thenReturn(column);
+        }
+        return columnDefinitions;
+    }
+
+    static CassandraConnection mockConnection(CqlSession session, String uri) {
+        CassandraConnection connection = mock(CassandraConnection.class);
+        when(connection.getSession()).thenReturn(session);
+        when(connection.getClientURI()).thenReturn(new CassandraClientURI(uri, null));
+        return connection;
+    }
+
+    @Test
+    public void testStatementFetchSizeIsPageSize() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        AsyncResultSet first = asyncPage();
+        doReturn(CompletableFuture.completedFuture(first)).when(session).executeAsync(any(Statement.class));
+        CassandraConnection connection = mockConnection(session, "jdbc:cassandra://localhost");
+
+        CassandraStatement statement = new CassandraStatement(connection);
+        statement.setFetchSize(5000);
+        statement.executeQuery("SELECT * FROM t");
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session).executeAsync(captor.capture());
+        assertEquals(5000, captor.getValue().getPageSize());
+        assertEquals(5000, statement.getFetchSize());
+    }
+
+    @Test
+    public void testMaxRows() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        AsyncResultSet rows = asyncPage(mock(Row.class), mock(Row.class), mock(Row.class));
+        doReturn(CompletableFuture.completedFuture(rows)).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(mockConnection(session, "jdbc:cassandra://localhost?maxrows=2"));
+        assertEquals(2, statement.getMaxRows());
+
+        java.sql.ResultSet rs = statement.executeQuery("SELECT * FROM t");
+        assertTrue(rs.next());
+        assertTrue(rs.next());
+        assertFalse(rs.next());
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session).executeAsync(captor.capture());
+        assertEquals(2, captor.getValue().getPageSize());
+
+        statement.setMaxRows(0);
+        statement.setFetchSize(100);
+        statement.executeQuery("SELECT * FROM t");
+        verify(session, times(2)).executeAsync(captor.capture());
+        assertEquals(100, captor.getValue().getPageSize());
+
+        assertFalse(CassandraBaseStatement.isLimitable("SELECT * FROM t LIMIT 10"));
+        assertFalse(CassandraBaseStatement.isLimitable("select count(*) from t"));
+        assertFalse(CassandraBaseStatement.isLimitable("INSERT INTO t (id) VALUES (1)"));
+        assertTrue(CassandraBaseStatement.isLimitable("select id, value\nfrom t where id in (1, 2)"));
+    }
+
+    @Test
+    public void testQueryTimeout() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> timedOut = new CompletableFuture<>();
+        timedOut.completeExceptionally(new DriverTimeoutException("Query timed out after PT3S"));
+        doReturn(timedOut).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(mockConnection(session, "jdbc:cassandra://localhost"));
+        statement.setQueryTimeout(3);
+        assertEquals(3, statement.getQueryTimeout());
+        try {
+            statement.executeQuery("SELECT * FROM t");
+            fail();
+        } catch (SQLTimeoutException expected) {
+        }
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session).executeAsync(captor.capture());
+        assertEquals(Duration.ofSeconds(3), captor.getValue().getTimeout());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> pending = new CompletableFuture<>();
+        doReturn(pending).when(session).executeAsync(any(Statement.class));
+        CassandraStatement statement = new CassandraStatement(mockConnection(session, "jdbc:cassandra://localhost"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<java.sql.ResultSet> execution = executor.submit(() -> statement.executeQuery("SELECT * FROM t"));
+            while (!pending.isDone()) {
+                statement.cancel();
+                Thread.sleep(1);
+            }
+            assertTrue(pending.isCancelled());
+            try {
+                execution.get();
+                fail();
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof SQLException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the open result set stops reading pages
+        CompletableFuture<AsyncResultSet> nextPage = new CompletableFuture<>();
+        AsyncResultSet first = asyncPage(mock(Row.class));
+        when(first.hasMorePages()).thenReturn(true);
+        when(first.fetchNextPage()).thenReturn(nextPage);
+        doReturn(CompletableFuture.completedFuture(first)).when(session).executeAsync(any(Statement.class));
+        java.sql.ResultSet rs = statement.executeQuery("SELECT * FROM t");
+        assertTrue(rs.next());
+        statement.cancel();
+        try {
+            rs.next();
+            fail();
+        } catch (SQLException expected) {
+        }
+        verify(first, never()).fetchNextPage();
+    }
+
+    @Test
+    public void testCancelWhileTheRequestStarts() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CompletableFuture<AsyncResultSet> pending = new CompletableFuture<>();
+        CassandraStatement statement = new CassandraStatement(mockConnection(session, "jdbc:cassandra://localhost"));
+        // another thread cancels after the request is sent, before executeAsync returns
+        doAnswer(invocation -> {
+            statement.cancel();
+            return pending;
+        }).when(session).executeAsync(any(Statement.class));
+        try {
+            statement.executeQuery("SELECT * FROM t");
+            fail();
+        } catch (SQLException expected) {
+        }
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void testChangedFetchSizeAppliesToNextPage() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CassandraConnection connection = mockConnection(session, "jdbc:cassandra://localhost");
+        CassandraStatement statement = new CassandraStatement(connection);
+
+        ByteBuffer pagingState = ByteBuffer.wrap(new byte[]{1, 2, 3});
+        AsyncResultSet firstPage = asyncPage(pagingState);
+        AsyncResultSet secondPage = asyncPage(ByteBuffer.wrap(new byte[]{4}), mock(Row.class));
+        AsyncResultSet thirdPage = asyncPage((ByteBuffer) null, mock(Row.class));
+        doReturn(CompletableFuture.completedFuture(secondPage)).when(session).executeAsync(any(Statement.class));
+        doReturn(CompletableFuture.completedFuture(thirdPage)).when(secondPage).fetchNextPage();
+
+        CassandraResultSet rs = resultSet(statement, session, SimpleStatement.newInstance("SELECT * FROM t").setPageSize(100), firstPage);
+        rs.setFetchSize(10);
+        assertTrue(rs.next());
+        // the statement executed with the new page size continues with the driver paging
+        assertTrue(rs.next());
+        assertFalse(rs.next());
+
+        ArgumentCaptor<Statement<?>> captor = ArgumentCaptor.forClass(Statement.class);
+        verify(session).executeAsync(captor.capture());
+        assertEquals(10, captor.getValue().getPageSize());
+        assertEquals(pagingState, captor.getValue().getPagingState());
+        verify(firstPage, never()).fetchNextPage();
+        assertEquals(10, rs.getFetchSize());
+    }
+
+    @Test
+    public void testUnchangedFetchSizeUsesDriverPaging() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CassandraConnection connection = mockConnection(session, "jdbc:cassandra://localhost");
+        CassandraStatement statement = new CassandraStatement(connection);
+
+        AsyncResultSet firstPage = asyncPage(ByteBuffer.wrap(new byte[]{1}));
+        AsyncResultSet secondPage = asyncPage((ByteBuffer) null, mock(Row.class));
+        doReturn(CompletableFuture.completedFuture(secondPage)).when(firstPage).fetchNextPage();
+        CassandraResultSet rs = resultSet(statement, session, SimpleStatement.newInstance("SELECT * FROM t").setPageSize(100), firstPage);
+        assertTrue(rs.next());
+        assertFalse(rs.next());
+        verify(session, never()).executeAsync(any(Statement.class));
+    }
+
+    @Test
+    public void testBinaryValuesRespectBufferBounds() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CassandraStatement statement = new CassandraStatement(mockConnection(session, "jdbc:cassandra://localhost"));
+        Row row = mock(Row.class);
+        when(row.getByteBuffer(0)).thenAnswer(invocation -> {
+            ByteBuffer buffer = ByteBuffer.wrap(new byte[]{9, 1, 2, 3, 9});
+            buffer.position(1).limit(4);
+            return buffer;
+        });
+        byte[] whole = {1, 2, 3};
+        when(row.getByteBuffer(1)).thenReturn(ByteBuffer.wrap(whole));
+        CassandraResultSet rs = resultSet(statement, session, asyncPage(row));
+        assertTrue(rs.next());
+        assertArrayEquals(new byte[]{1, 2, 3}, rs.getBytes(1));
+        byte[] copy = rs.getBytes(2);
+        assertNotSame(whole, copy);
+        assertArrayEquals(whole, copy);
+        copy[0] = 7;
+        assertArrayEquals(new byte[]{1, 2, 3}, rs.getBytes(2));
+        assertEquals(3, rs.getBlob(1).length());
+        assertEquals(1, rs.getBinaryStream(1).read());
+        when(row.get(0, ByteBuffer.class)).thenAnswer(invocation -> row.getByteBuffer(0));
+        assertEquals(3, rs.getObject(1, ByteBuffer.class).remaining());
+        assertArrayEquals(new byte[]{1, 2, 3}, rs.getObject(1, byte[].class));
+    }
+
+    @Test
+    public void testFindColumn() throws Exception {
+        CqlSession session = mock(CqlSession.class);
+        CassandraStatement statement = new CassandraStatement(mockConnection(session, "jdbc:cassandra://localhost"));
+        Row row = mock(Row.class);
+        when(row.getObject(1)).thenReturn("second");
+        AsyncResultSet page = asyncPage(row);
+        ColumnDefinitions columnDefinitions = columns("id", "name", "Name", "id");
+        when(page.getColumnDefinitions()).thenReturn(columnDefinitions);
+        CassandraResultSet rs = resultSet(statement, session, page);
+
+        assertEquals(1, rs.findColumn("id"));
+        assertEquals(1, rs.findColumn("ID"));
+        assertEquals(2, rs.findColumn("name"));
+        assertEquals(3, rs.findColumn("Name"));
+        assertEquals(2, rs.findColumn("NAME"));
+        assertEquals(3, rs.findColumn("\"Name\""));
+        try {
+            rs.findColumn("missing");
+            fail();
+        } catch (SQLException expected) {
+        }
+
+        assertTrue(rs.next());
+        assertEquals("second", rs.getString("name"));
+        verify(row, never()).getObject(anyString());
+    }
+}
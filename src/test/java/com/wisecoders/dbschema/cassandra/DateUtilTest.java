@@ -0,0 +1,132 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.Test;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class DateUtilTest {
+
+    private static final String[] ZONES = {"UTC", "Europe/Berlin", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe", "GMT-03:30"};
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    /**
+     * The conversion by formatting the wall clock fields in one zone and parsing them in the other one.
+     */
+    private static long reference(long millis, String pattern, TimeZone timeZone, DateUtil.Direction direction) throws Exception {
+        SimpleDateFormat formatter = new SimpleDateFormat(pattern);
+        SimpleDateFormat parser = new SimpleDateFormat(pattern);
+        formatter.setTimeZone(direction == DateUtil.Direction.FROM_UTC ? UTC : timeZone);
+        parser.setTimeZone(direction == DateUtil.Direction.FROM_UTC ? timeZone : UTC);
+        return parser.parse(formatter.format(new java.util.Date(millis))).getTime();
+    }
+
+    private static void assertConversions(long millis, Calendar calendar) throws Exception {
+        TimeZone timeZone = calendar.getTimeZone();
+        for (DateUtil.Direction direction : DateUtil.Direction.values()) {
+            String message = timeZone.getID() + " " + direction + " " + millis;
+            assertEquals(message, reference(millis, "yyyy-MM-dd'T'HH:mm:ss.SSS", timeZone, direction),
+                    DateUtil.considerTimeZone(new Timestamp(millis), calendar, direction).getTime());
+            assertEquals(message, reference(millis, "yyyy-MM-dd", timeZone, direction),
+                    DateUtil.considerTimeZone(new java.sql.Date(millis), calendar, direction).getTime());
+            assertEquals(message, reference(millis, "HH:mm:ss.SSS", timeZone, direction),
+                    DateUtil.considerTimeZone(new Time(millis), calendar, direction).getTime());
+        }
+    }
+
+    @Test
+    public void testSameResultAsFormatting() throws Exception {
+        Random random = new Random(42);
+        for (String zone : ZONES) {
+            Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(zone));
+            for (int i = 0; i < 2000; i++) {
+                // 1900 to 2100
+                assertConversions(-2208988800000L + (long) (random.nextDouble() * 6311433600000L), calendar);
+            }
+        }
+        // DST gap and overlap in Berlin, 2023-03-26 and 2023-10-29 at 02:30
+        Calendar berlin = Calendar.getInstance(TimeZone.getTimeZone("Europe/Berlin"));
+        assertConversions(1679797800000L, berlin);
+        assertConversions(1698546600000L, berlin);
+    }
+
+    @Test
+    public void testCustomTimeZones() throws Exception {
+        // the id is not a tz database id, ZoneId.of() rejects it
+        SimpleTimeZone custom = new SimpleTimeZone(2 * 60 * 60 * 1000, "My Zone",
+                Calendar.MARCH, -1, Calendar.SUNDAY, 2 * 60 * 60 * 1000,
+                Calendar.OCTOBER, -1, Calendar.SUNDAY, 3 * 60 * 60 * 1000);
+        // a tz database id with other rules
+        SimpleTimeZone berlin = new SimpleTimeZone(5 * 60 * 60 * 1000, "Europe/Berlin");
+        Random random = new Random(42);
+        for (TimeZone zone : new TimeZone[]{custom, berlin}) {
+            Calendar calendar = Calendar.getInstance(zone);
+            for (int i = 0; i < 2000; i++) {
+                assertConversions(-2208988800000L + (long) (random.nextDouble() * 6311433600000L), calendar);
+            }
+        }
+        // summer and winter time
+        Calendar calendar = Calendar.getInstance(custom);
+        assertEquals(3 * 60 * 60 * 1000L, DateUtil.considerTimeZone(new Timestamp(1688169600000L), calendar, DateUtil.Direction.TO_UTC).getTime() - 1688169600000L);
+        assertEquals(2 * 60 * 60 * 1000L, DateUtil.considerTimeZone(new Timestamp(1704067200000L), calendar, DateUtil.Direction.TO_UTC).getTime() - 1704067200000L);
+        assertConversions(1679797800000L, calendar);
+    }
+
+    @Test
+    public void testTimestampKeepsNanos() {
+        Timestamp timestamp = Timestamp.valueOf("2024-05-01 10:15:30.123456789");
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("America/New_York"));
+        Timestamp utc = DateUtil.considerTimeZone(timestamp, calendar, DateUtil.Direction.TO_UTC);
+        assertEquals(123456789, utc.getNanos());
+        assertEquals(timestamp, DateUtil.considerTimeZone(utc, calendar, DateUtil.Direction.FROM_UTC));
+    }
+
+    @Test
+    public void testConcurrentConversions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final long seed = thread;
+                results.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone(ZONES[random.nextInt(ZONES.length)]));
+                        long millis = (long) (random.nextDouble() * 4102444800000L);
+                        Timestamp timestamp = new Timestamp(millis);
+                        Timestamp utc = DateUtil.considerTimeZone(timestamp, calendar, DateUtil.Direction.TO_UTC);
+                        long offset = calendar.getTimeZone().getOffset(millis);
+                        assertEquals(millis + offset, utc.getTime());
+                        java.sql.Date date = DateUtil.considerTimeZone(new java.sql.Date(millis), calendar, DateUtil.Direction.TO_UTC);
+                        assertEquals(0, Math.floorMod(date.getTime(), 24 * 60 * 60 * 1000L));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
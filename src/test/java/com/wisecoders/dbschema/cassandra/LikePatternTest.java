@@ -0,0 +1,42 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class LikePatternTest {
+
+    @Test
+    public void testWildcards() {
+        LikePattern pattern = LikePattern.compile("us_r%log");
+        assertFalse(pattern.isLiteral());
+        assertEquals("us", pattern.getPrefix());
+        assertTrue(pattern.matches("user_log"));
+        assertFalse(pattern.matches("usr_log"));
+        assertTrue(pattern.matches("usXrlog"));
+        assertFalse(pattern.matches("user_logs"));
+        assertTrue(LikePattern.compile(null).matchesAll());
+        assertTrue(LikePattern.compile("%").matchesAll());
+        assertEquals("", LikePattern.compile("%a").getPrefix());
+    }
+
+    @Test
+    public void testEscapeAndRegexCharacters() {
+        LikePattern literal = LikePattern.compile("a\\_b\\%");
+        assertTrue(literal.isLiteral());
+        assertEquals("a_b%", literal.getPrefix());
+        assertTrue(literal.matches("a_b%"));
+        assertFalse(literal.matches("axb%"));
+
+        LikePattern pattern = LikePattern.compile("t.(1)\\_%");
+        assertEquals("t.(1)_", pattern.getPrefix());
+        assertTrue(pattern.matches("t.(1)_x"));
+        assertFalse(pattern.matches("tx(1)_x"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ *
+ * Connects with JdbcDriver to StubCassandraServer, so the whole path down to the native protocol frames is used. The durations
+ * are only logged, the tests check the counts. The large blob test runs only with <code>gradle throughputTest</code>.
+ */
+
+public class NativeProtocolThroughputTest {
+
+    static final String THROUGHPUT_KEY = "cassandra.jdbc.throughput";
+
+    private static final Logger LOGGER = Logger.getLogger(NativeProtocolThroughputTest.class.getName());
+
+    private static final String SELECT_WIDE = "SELECT * FROM bench.wide";
+    private static final String SELECT_BLOBS = "SELECT id, data FROM bench.blobs";
+    private static final String INSERT = "INSERT INTO bench.events (id, user_id, note) VALUES (?, ?, ?)";
+    private static final int WIDE_ROWS = 20_000;
+    private static final int BLOB_ROWS = 64;
+    private static final int BLOB_SIZE = 1024 * 1024;
+
+    private static StubCassandraServer server;
+
+    @BeforeClass
+    public static void startServer() throws InterruptedException {
+        server = new StubCassandraServer();
+        server.addRows(SELECT_WIDE, WIDE_ROWS, DataTypes.INT, DataTypes.BIGINT, DataTypes.TEXT, DataTypes.DOUBLE,
+                DataTypes.UUID, DataTypes.TIMESTAMP, DataTypes.TEXT, DataTypes.TEXT);
+        server.addRows(SELECT_BLOBS, BLOB_ROWS, BLOB_SIZE, DataTypes.INT, DataTypes.BLOB);
+        server.addPrepared(INSERT, DataTypes.BIGINT, DataTypes.INT, DataTypes.TEXT);
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
+    private static Connection connect(String options) throws SQLException {
+        return new JdbcDriver().connect(server.getUrl("bench") + options, new Properties());
+    }
+
+    private static void report(String operation, long start, int count) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOGGER.info(operation + ": " + count + " in " + millis + " ms");
+    }
+
+    @Test
+    public void testConnect() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection first = connect("?sharesession=true")) {
+            report("first connection", start, 1);
+            final int sockets = server.connections.get();
+            start = System.nanoTime();
+            for (int i = 0; i < 200; i++) {
+                connect("?sharesession=true").close();
+            }
+            report("shared connections", start, 200);
+            // the session of the first connection is shared
+            assertEquals(sockets, server.connections.get());
+            assertFalse(first.isClosed());
+        }
+    }
+
+    @Test
+    public void testPaging() throws SQLException {
+        try (Connection connection = connect(""); Statement statement = connection.createStatement()) {
+            final int pages = server.pages.get();
+            statement.setFetchSize(1000);
+            final long start = System.nanoTime();
+            int count = 0;
+            try (ResultSet rs = statement.executeQuery(SELECT_WIDE)) {
+                while (rs.next()) {
+                    assertEquals(count, rs.getInt(1));
+                    assertEquals("value " + count, rs.getString(3));
+                    count++;
+                }
+            }
+            assertEquals(WIDE_ROWS, count);
+            assertEquals(WIDE_ROWS / 1000, server.pages.get() - pages);
+            report("paged rows", start, count);
+        }
+    }
+
+    @Test
+    public void testPrefetchedPaging() throws SQLException {
+        try (Connection connection = connect("?prefetchpages=2&sharesession=false"); Statement statement = connection.createStatement()) {
+            statement.setFetchSize(500);
+            final long start = System.nanoTime();
+            int count = 0;
+            try (ResultSet rs = statement.executeQuery(SELECT_WIDE)) {
+                while (rs.next()) {
+                    assertEquals(count++, rs.getInt(1));
+                }
+            }
+            assertEquals(WIDE_ROWS, count);
+            report("prefetched rows", start, count);
+        }
+    }
+
+    @Test
+    public void testPrepareAndExecute() throws SQLException {
+        try (Connection connection = connect("")) {
+            final int prepares = server.prepares.get();
+            final int executions = server.executions.get();
+            final long start = System.nanoTime();
+            for (int i = 0; i < 2_000; i++) {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                    statement.setLong(1, i);
+                    statement.setInt(2, i % 100);
+                    statement.setString(3, "event " + i);
+                    assertEquals(1, statement.executeUpdate());
+                }
+            }
+            report("prepared executions", start, 2_000);
+            assertTrue(server.prepares.get() - prepares <= 1);
+            assertEquals(2_000, server.executions.get() - executions);
+        }
+    }
+
+    @Test
+    public void testBatches() throws SQLException {
+        for (String mode : new String[]{"logged", "unlogged", "fanout"}) {
+            try (Connection connection = connect("?sharesession=false&batchmode=" + mode);
+                 PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                final int batchStatements = server.batchStatements.get();
+                final int executions = server.executions.get();
+                final long start = System.nanoTime();
+                for (int i = 0; i < 1_000; i++) {
+                    statement.setLong(1, i);
+                    statement.setInt(2, i % 100);
+                    statement.setString(3, "event " + i);
+                    statement.addBatch();
+                }
+                assertEquals(1_000, statement.executeBatch().length);
+                report(mode + " batch statements", start, 1_000);
+                assertEquals(1_000, server.batchStatements.get() - batchStatements + server.executions.get() - executions);
+            }
+        }
+    }
+
+    @Test
+    public void testLargeBlobs() throws SQLException {
+        assumeTrue("64 MB of blobs, run with gradle throughputTest", Boolean.getBoolean(THROUGHPUT_KEY));
+        try (Connection connection = connect(""); Statement statement = connection.createStatement()) {
+            statement.setFetchSize(8);
+            final long start = System.nanoTime();
+            long bytes = 0;
+            try (ResultSet rs = statement.executeQuery(SELECT_BLOBS)) {
+                while (rs.next()) {
+                    bytes += rs.getBytes(2).length;
+                }
+            }
+            assertEquals((long) BLOB_ROWS * BLOB_SIZE, bytes);
+            report("blob megabytes", start, (int) (bytes >> 20));
+        }
+    }
+}
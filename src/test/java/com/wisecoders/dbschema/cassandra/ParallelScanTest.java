@@ -0,0 +1,150 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3Token;
+import com.datastax.oss.driver.internal.core.metadata.token.Murmur3TokenRange;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ParallelScanTest {
+
+    private static AsyncResultSet page(CompletableFuture<AsyncResultSet> next, Row... rows) {
+        AsyncResultSet page = mock(AsyncResultSet.class);
+        when(page.currentPage()).thenReturn(Arrays.asList(rows));
+        when(page.hasMorePages()).thenReturn(next != null);
+        ColumnDefinitions columnDefinitions = CassandraResultSetTest.columns("id");
+        when(page.getColumnDefinitions()).thenReturn(columnDefinitions);
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        when(page.getExecutionInfo()).thenReturn(executionInfo);
+        if (next != null) {
+            when(page.fetchNextPage()).thenReturn(next);
+        }
+        return page;
+    }
+
+    @Test
+    public void testSplitRing() {
+        TokenRange first = new Murmur3TokenRange(new Murmur3Token(-100), new Murmur3Token(100));
+        TokenRange wrapped = new Murmur3TokenRange(new Murmur3Token(100), new Murmur3Token(-100));
+        List<TokenRange> ranges = ParallelScan.splitRing(new HashSet<>(Arrays.asList(first, wrapped)), 8);
+        // 4 splits per range, and the split crossing the end of the ring is unwrapped in two ranges
+        assertEquals(9, ranges.size());
+        for (TokenRange range : ranges) {
+            assertFalse(range.isWrappedAround());
+        }
+        assertEquals(1, ParallelScan.splitRing(Collections.singleton(first), 1).size());
+    }
+
+    @Test
+    public void testRangesAreReadWithLimitedParallelism() {
+        CqlSession session = mock(CqlSession.class);
+        Statement<?> range1 = SimpleStatement.newInstance("range1");
+        Statement<?> range2 = SimpleStatement.newInstance("range2");
+        Statement<?> range3 = SimpleStatement.newInstance("range3");
+        CompletableFuture<AsyncResultSet> range1Next = new CompletableFuture<>();
+        CompletableFuture<AsyncResultSet> range1First = CompletableFuture.completedFuture(page(range1Next, mock(Row.class)));
+        CompletableFuture<AsyncResultSet> range2First = CompletableFuture.completedFuture(page(null, mock(Row.class), mock(Row.class)));
+        CompletableFuture<AsyncResultSet> range3First = CompletableFuture.completedFuture(page(null, mock(Row.class)));
+        doReturn(range1First).when(session).executeAsync(range1);
+        doReturn(range2First).when(session).executeAsync(range2);
+        doReturn(range3First).when(session).executeAsync(range3);
+
+        QueryMetrics metrics = new QueryMetrics("scan");
+        StatementExecution execution = new StatementExecution(SimpleStatement.newInstance("SELECT * FROM t"), metrics, 0);
+        ParallelScan scan = new ParallelScan(session, mock(ColumnDefinitions.class), Arrays.asList(range1, range2, range3), 2, execution);
+        verify(session).executeAsync(range1);
+        verify(session).executeAsync(range2);
+        verify(session, never()).executeAsync(range3);
+
+        int rows = 0;
+        while (scan.hasNext()) {
+            scan.next();
+            rows++;
+            if (rows == 1) {
+                // the second page of range 1 is requested while its first page is consumed
+                range1Next.complete(page(null, mock(Row.class)));
+            }
+        }
+        assertEquals(5, rows);
+        verify(session).executeAsync(range3);
+        // the first page of any range is the execution, the other pages are fetches
+        assertEquals(1, metrics.execute.getCount());
+        assertEquals(3, metrics.pageFetch.getCount());
+        assertEquals(4, metrics.pages.sum());
+        assertEquals(5, metrics.rows.sum());
+        assertEquals(1, metrics.consume.getCount());
+        scan.close();
+        assertEquals(1, metrics.consume.getCount());
+    }
+
+    @Test
+    public void testFailureIsThrownToConsumer() {
+        CqlSession session = mock(CqlSession.class);
+        Statement<?> range = SimpleStatement.newInstance("range");
+        ReadTimeoutException error = mock(ReadTimeoutException.class);
+        CompletableFuture<AsyncResultSet> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+        doReturn(failed).when(session).executeAsync(range);
+
+        ParallelScan scan = new ParallelScan(session, mock(ColumnDefinitions.class), Collections.singletonList(range), 4);
+        try {
+            scan.hasNext();
+            fail();
+        } catch (CompletionException ex) {
+            assertSame(error, ex.getCause());
+        }
+    }
+
+    @Test
+    public void testOnlyFullTableScansAreSplit() {
+        CassandraConnection connection = CassandraResultSetTest.mockConnection(mock(CqlSession.class), "jdbc:cassandra://localhost?parallelscan=4");
+        assertNull(ParallelScan.create(connection, SimpleStatement.newInstance("SELECT * FROM ks.t WHERE id = 1"), () -> null));
+        assertNull(ParallelScan.create(connection, SimpleStatement.newInstance("SELECT * FROM ks.t LIMIT 10"), () -> null));
+        assertNull(ParallelScan.create(connection, SimpleStatement.newInstance("SELECT count(*) FROM ks.t"), () -> null));
+        assertNull(ParallelScan.create(connection, SimpleStatement.newInstance("SELECT /*+ PARALLEL(1) */ * FROM ks.t"), () -> null));
+        assertNull(ParallelScan.create(connection, SimpleStatement.newInstance("INSERT INTO ks.t (id) VALUES (1)"), () -> null));
+
+        CassandraConnection disabled = CassandraResultSetTest.mockConnection(mock(CqlSession.class), "jdbc:cassandra://localhost");
+        assertNull(ParallelScan.create(disabled, SimpleStatement.newInstance("SELECT * FROM ks.t"), () -> null));
+    }
+
+    @Test
+    public void testRangesHaveTheStatementOptions() {
+        BoundStatement range = mock(BoundStatement.class, RETURNS_SELF);
+        SimpleStatement statement = SimpleStatement.newInstance("SELECT * FROM ks.t").setPageSize(100)
+                .setTimeout(Duration.ofSeconds(5)).setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM).setExecutionProfileName("scan");
+        assertSame(range, ParallelScan.withOptionsOf(range, statement));
+        verify(range).setPageSize(100);
+        verify(range).setTimeout(Duration.ofSeconds(5));
+        verify(range).setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM);
+        verify(range).setExecutionProfileName("scan");
+        verify(range, never()).setSerialConsistencyLevel(any());
+    }
+}
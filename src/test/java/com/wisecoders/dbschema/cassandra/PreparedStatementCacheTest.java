@@ -0,0 +1,102 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class PreparedStatementCacheTest {
+
+    private CqlSession session;
+
+    @Before
+    public void setUp() {
+        session = mock(CqlSession.class);
+        when(session.getKeyspace()).thenReturn(Optional.of(CqlIdentifier.fromCql("ks1")));
+        when(session.prepareAsync(anyString())).thenAnswer(invocation -> CompletableFuture.completedFuture(mock(PreparedStatement.class)));
+    }
+
+    @Test
+    public void testHitForNormalizedQuery() {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        PreparedStatement first = cache.prepare(session, "SELECT * FROM t WHERE id = ?");
+        PreparedStatement second = cache.prepare(session, "  SELECT *\n FROM t   WHERE id = ? ;");
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        verify(session, times(1)).prepareAsync(anyString());
+    }
+
+    @Test
+    public void testQuotedTextIsNotNormalized() {
+        assertEquals("SELECT 'a  b' FROM t", PreparedStatementCache.normalize("SELECT   'a  b'  FROM t;"));
+        assertNotEquals(PreparedStatementCache.normalize("SELECT 'a b'"), PreparedStatementCache.normalize("SELECT 'a  b'"));
+    }
+
+    @Test
+    public void testDollarLiteralsAndCommentsAreNotNormalized() {
+        assertEquals("INSERT INTO t (v) VALUES ($$a  b;$$)", PreparedStatementCache.normalize("INSERT  INTO t (v)\nVALUES ($$a  b;$$);"));
+        assertNotEquals(PreparedStatementCache.normalize("SELECT $$a b$$"), PreparedStatementCache.normalize("SELECT $$a  b$$"));
+        assertEquals("SELECT * -- all  columns\n FROM t", PreparedStatementCache.normalize("SELECT  * -- all  columns\n  FROM t"));
+        // the new line ends the comment, the rest of the statement is not commented out
+        assertNotEquals(PreparedStatementCache.normalize("SELECT * // c\nFROM t"), PreparedStatementCache.normalize("SELECT * // c FROM t"));
+        assertEquals("SELECT /* a  b */ * FROM t", PreparedStatementCache.normalize("SELECT  /* a  b */  * FROM t ;"));
+        assertEquals("SELECT $$unterminated ;", PreparedStatementCache.normalize("SELECT $$unterminated ;"));
+    }
+
+    @Test
+    public void testKeyspaceIsPartOfTheKey() {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        PreparedStatement first = cache.prepare(session, "SELECT * FROM t");
+        when(session.getKeyspace()).thenReturn(Optional.of(CqlIdentifier.fromCql("ks2")));
+        PreparedStatement second = cache.prepare(session, "SELECT * FROM t");
+        assertNotSame(first, second);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        PreparedStatementCache cache = new PreparedStatementCache(2);
+        PreparedStatement a = cache.prepare(session, "SELECT a FROM t");
+        cache.prepare(session, "SELECT b FROM t");
+        cache.prepare(session, "SELECT a FROM t");
+        cache.prepare(session, "SELECT c FROM t");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(a, cache.prepare(session, "SELECT a FROM t"));
+        cache.prepare(session, "SELECT b FROM t");
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void testSchemaChangeInvalidates() {
+        PreparedStatementCache cache = new PreparedStatementCache(10);
+        PreparedStatement first = cache.prepare(session, "SELECT * FROM t");
+        cache.onTableUpdated(null, null);
+        assertEquals(0, cache.size());
+        assertNotSame(first, cache.prepare(session, "SELECT * FROM t"));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        PreparedStatementCache cache = new PreparedStatementCache(0);
+        cache.prepare(session, "SELECT * FROM t");
+        cache.prepare(session, "SELECT * FROM t");
+        assertEquals(0, cache.size());
+        verify(session, times(2)).prepareAsync(anyString());
+    }
+}
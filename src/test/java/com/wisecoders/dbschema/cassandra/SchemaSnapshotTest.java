@@ -0,0 +1,160 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SchemaSnapshotTest {
+
+    private static ColumnMetadata column(String name) {
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        when(column.getName()).thenReturn(CqlIdentifier.fromCql(name));
+        when(column.getType()).thenReturn(DataTypes.TEXT);
+        return column;
+    }
+
+    private static TableMetadata table(String keyspace, String name, String... columnNames) {
+        TableMetadata table = mock(TableMetadata.class);
+        when(table.getKeyspace()).thenReturn(CqlIdentifier.fromCql(keyspace));
+        when(table.getName()).thenReturn(CqlIdentifier.fromCql(name));
+        Map<CqlIdentifier, ColumnMetadata> columns = new LinkedHashMap<>();
+        for (String columnName : columnNames) {
+            columns.put(CqlIdentifier.fromCql(columnName), column(columnName));
+        }
+        ColumnMetadata partitionKey = columns.values().iterator().next();
+        when(table.getColumns()).thenReturn(columns);
+        when(table.getPartitionKey()).thenReturn(Collections.singletonList(partitionKey));
+        when(table.getPrimaryKey()).thenReturn(Collections.singletonList(partitionKey));
+        when(table.getClusteringColumns()).thenReturn(Collections.<ColumnMetadata, ClusteringOrder>emptyMap());
+        return table;
+    }
+
+    private static KeyspaceMetadata keyspace(String name, TableMetadata... tables) {
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        when(keyspace.getName()).thenReturn(CqlIdentifier.fromCql(name));
+        Map<CqlIdentifier, TableMetadata> tableMap = new LinkedHashMap<>();
+        for (TableMetadata table : tables) {
+            tableMap.put(table.getName(), table);
+        }
+        when(keyspace.getTables()).thenReturn(tableMap);
+        return keyspace;
+    }
+
+    @Test
+    public void testRowsAreBuiltOnce() {
+        SchemaSnapshot snapshot = SchemaSnapshot.build(Collections.singletonList(keyspace("ks", table("ks", "t1", "id", "value"), table("ks", "t2", "id"))),
+                Arrays.asList("ks", "hidden"));
+        assertEquals(2, snapshot.getCatalogRows().size());
+        assertEquals("hidden", snapshot.getCatalogRows().get(1)[0]);
+        assertEquals(2, snapshot.getTableRows("ks", LikePattern.ANY).size());
+        assertEquals("t1", snapshot.getTableRows("KS", LikePattern.ANY).get(0)[2]);
+        assertEquals(3, snapshot.getColumnRows("ks", LikePattern.ANY, LikePattern.ANY).size());
+        assertEquals("value", snapshot.getColumnRows("ks", LikePattern.compile("t1"), LikePattern.ANY).get(1)[3]);
+        assertEquals("id", snapshot.getPrimaryKeyRows("ks", "t2").get(0)[3]);
+        assertTrue(snapshot.getColumnRows("other", LikePattern.ANY, LikePattern.ANY).isEmpty());
+        assertTrue(snapshot.getPrimaryKeyRows("ks", null).isEmpty());
+        assertSame(snapshot.getColumnRows("ks", LikePattern.compile("t1"), LikePattern.ANY).get(0), snapshot.getColumnRows("ks", LikePattern.ANY, LikePattern.ANY).get(0));
+    }
+
+    @Test
+    public void testTableChangeRebuildsOnlyThatTable() {
+        SchemaSnapshot snapshot = SchemaSnapshot.build(Collections.singletonList(keyspace("ks", table("ks", "t1", "id"), table("ks", "t2", "id"))),
+                Collections.emptyList());
+        String[] t2Column = snapshot.getColumnRows("ks", LikePattern.compile("t2"), LikePattern.ANY).get(0);
+
+        SchemaSnapshot updated = snapshot.withTable(table("ks", "t1", "id", "added"));
+        assertEquals(snapshot.getVersion() + 1, updated.getVersion());
+        assertEquals(2, updated.getColumnRows("ks", LikePattern.compile("t1"), LikePattern.ANY).size());
+        assertEquals(1, snapshot.getColumnRows("ks", LikePattern.compile("t1"), LikePattern.ANY).size());
+        assertSame(t2Column, updated.getColumnRows("ks", LikePattern.compile("t2"), LikePattern.ANY).get(0));
+        assertEquals("t1", updated.getTableRows("ks", LikePattern.ANY).get(0)[2]);
+
+        SchemaSnapshot dropped = updated.withoutTable(CqlIdentifier.fromCql("ks"), CqlIdentifier.fromCql("t1"));
+        assertEquals(1, dropped.getTableRows("ks", LikePattern.ANY).size());
+        assertSame(dropped, dropped.withoutTable(CqlIdentifier.fromCql("ks"), CqlIdentifier.fromCql("t1")));
+
+        SchemaSnapshot created = dropped.withTable(table("ks2", "t3", "id"));
+        assertEquals(2, created.getCatalogRows().size());
+        assertEquals(1, created.getTableRows("ks2", LikePattern.ANY).size());
+        assertEquals(1, created.withoutKeyspace(CqlIdentifier.fromCql("ks2")).getCatalogRows().size());
+    }
+
+    @Test
+    public void testPatternLookup() {
+        SchemaSnapshot snapshot = SchemaSnapshot.build(Collections.singletonList(keyspace("ks",
+                table("ks", "user_events", "id", "user_id"), table("ks", "users", "id", "name"), table("ks", "userx", "id"), table("ks", "orders", "id", "user_id"))),
+                Collections.emptyList());
+        assertEquals(Arrays.asList("user_events", "users", "userx"), names(snapshot.getTableRows("ks", LikePattern.compile("user%")), 2));
+        assertEquals(Collections.singletonList("user_events"), names(snapshot.getTableRows("ks", LikePattern.compile("user\\_%")), 2));
+        assertEquals(Arrays.asList("users", "userx"), names(snapshot.getTableRows("ks", LikePattern.compile("user_")), 2));
+        assertEquals(Arrays.asList("orders", "users"), names(snapshot.getTableRows("ks", LikePattern.compile("%ers")), 2));
+        assertEquals(Collections.singletonList("users"), names(snapshot.getTableRows("ks", LikePattern.compile("Users")), 2));
+        assertEquals(Arrays.asList("orders", "user_events"), names(snapshot.getColumnRows("ks", LikePattern.ANY, LikePattern.compile("user_id")), 2));
+        assertEquals(Arrays.asList("id", "name"), names(snapshot.getColumnRows("ks", LikePattern.compile("users"), LikePattern.compile("%")), 3));
+        assertEquals(Collections.singletonList("name"), names(snapshot.getColumnRows("ks", LikePattern.compile("us%s"), LikePattern.compile("n_me")), 3));
+        assertEquals(Collections.singletonList("name"), names(snapshot.getColumnRows("ks", LikePattern.compile("Users"), LikePattern.compile("Name")), 3));
+        assertEquals(Arrays.asList("orders", "user_events", "users", "userx"), names(snapshot.getColumnRows("ks", LikePattern.ANY, LikePattern.compile("ID")), 2));
+    }
+
+    private static List<String> names(List<String[]> rows, int column) {
+        List<String> names = new ArrayList<>();
+        for (String[] row : rows) {
+            names.add(row[column]);
+        }
+        return names;
+    }
+
+    @Test
+    public void testCacheIsUpdatedBySchemaEvents() {
+        CqlSession session = mock(CqlSession.class);
+        Metadata metadata = mock(Metadata.class);
+        KeyspaceMetadata ks = keyspace("ks", table("ks", "t1", "id"));
+        Map<CqlIdentifier, KeyspaceMetadata> keyspaceMap = Collections.singletonMap(CqlIdentifier.fromCql("ks"), ks);
+        when(metadata.getKeyspaces()).thenReturn(keyspaceMap);
+        when(session.getMetadata()).thenReturn(metadata);
+        AsyncResultSet keyspaces = mock(AsyncResultSet.class);
+        when(keyspaces.currentPage()).thenReturn(Collections.emptyList());
+        doReturn(CompletableFuture.completedFuture(keyspaces)).when(session).executeAsync(anyString());
+
+        SchemaSnapshotCache cache = new SchemaSnapshotCache(session);
+        // ignored, the snapshot is not built yet
+        TableMetadata early = table("ks", "t0", "id");
+        cache.onTableCreated(early);
+        SchemaSnapshot snapshot = cache.get();
+        assertSame(snapshot, cache.get());
+        assertEquals(1, snapshot.getTableRows("ks", LikePattern.ANY).size());
+
+        TableMetadata created = table("ks", "t2", "id");
+        cache.onTableCreated(created);
+        assertEquals(2, cache.get().getTableRows("ks", LikePattern.ANY).size());
+        assertEquals(snapshot.getVersion() + 1, cache.get().getVersion());
+        cache.onKeyspaceDropped(ks);
+        assertTrue(cache.get().getTableRows("ks", LikePattern.ANY).isEmpty());
+        verify(session, times(1)).executeAsync(anyString());
+    }
+}
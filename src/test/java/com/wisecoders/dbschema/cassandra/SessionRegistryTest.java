@@ -0,0 +1,152 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SessionRegistryTest {
+
+    private static CassandraClientURI mockedURI(String uri, Properties properties) throws Exception {
+        CassandraClientURI clientURI = spy(new CassandraClientURI(uri, properties));
+        doAnswer(invocation -> {
+            CqlSession session = mock(CqlSession.class);
+            doReturn(CompletableFuture.completedFuture(mock(AsyncResultSet.class))).when(session).executeAsync(anyString());
+            return session;
+        }).when(clientURI).createCqlSession(any());
+        return clientURI;
+    }
+
+    @Test
+    public void testSameUriSharesSession() throws Exception {
+        SharedSession first = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host1:9042,host2:9042/ks?user=u&password=p&sharesession=true", null));
+        SharedSession second = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host2:9042,HOST1:9042/ks?user=u&password=p&sharesession=true", null));
+        assertSame(first, second);
+        assertEquals(2, first.references);
+
+        SessionRegistry.release(first);
+        verify(first.getSession(), never()).close();
+        SessionRegistry.release(second);
+        verify(first.getSession()).close();
+
+        SharedSession third = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host1:9042,host2:9042/ks?user=u&password=p&sharesession=true", null));
+        assertNotSame(first, third);
+        SessionRegistry.release(third);
+    }
+
+    @Test
+    public void testSecondReleaseKeepsTheNewerSession() throws Exception {
+        String url = "jdbc:cassandra://host7:9042/ks?sharesession=true";
+        SharedSession first = SessionRegistry.acquire(mockedURI(url, null));
+        SessionRegistry.release(first);
+        SharedSession second = SessionRegistry.acquire(mockedURI(url, null));
+        assertNotSame(first, second);
+
+        SessionRegistry.release(first);
+        assertEquals(0, first.references);
+        verify(first.getSession(), times(1)).close();
+        SharedSession third = SessionRegistry.acquire(mockedURI(url, null));
+        assertSame(second, third);
+        assertEquals(2, second.references);
+        SessionRegistry.release(second);
+        SessionRegistry.release(third);
+        verify(second.getSession()).close();
+    }
+
+    @Test
+    public void testDifferentCredentialsUseDifferentSessions() throws Exception {
+        Properties properties = new Properties();
+        properties.put("password", "other");
+        SharedSession first = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host3:9042/ks?user=u&password=p&sharesession=true", null));
+        SharedSession second = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host3:9042/ks?user=u&password=p&sharesession=true", properties));
+        assertNotSame(first, second);
+        SessionRegistry.release(first);
+        SessionRegistry.release(second);
+    }
+
+    @Test
+    public void testPrivateSession() throws Exception {
+        SharedSession first = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host4:9042", null));
+        SharedSession second = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host4:9042?sharesession=false", null));
+        assertNotSame(first, second);
+        assertNull(first.getKey());
+        SessionRegistry.release(first);
+        verify(first.getSession()).close();
+        verify(second.getSession(), never()).close();
+        SessionRegistry.release(second);
+    }
+
+    @Test
+    public void testSlowOpenDoesNotBlockOtherUris() throws Exception {
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CassandraClientURI slowURI = mockedURI("jdbc:cassandra://host5:9042/ks?sharesession=true", null);
+        doAnswer(invocation -> {
+            opening.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            CqlSession session = mock(CqlSession.class);
+            doReturn(CompletableFuture.completedFuture(mock(AsyncResultSet.class))).when(session).executeAsync(anyString());
+            return session;
+        }).when(slowURI).createCqlSession(any());
+        CompletableFuture<SharedSession> slow = CompletableFuture.supplyAsync(() -> {
+            try {
+                return SessionRegistry.acquire(slowURI);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        });
+        assertTrue(opening.await(10, TimeUnit.SECONDS));
+        CompletableFuture<SharedSession> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return SessionRegistry.acquire(mockedURI("jdbc:cassandra://host5:9042/ks?sharesession=true", null));
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        });
+
+        SharedSession other = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host6:9042/ks?sharesession=true", null));
+        assertFalse(slow.isDone());
+        assertFalse(waiting.isDone());
+        SessionRegistry.release(other);
+
+        release.countDown();
+        SharedSession first = slow.get(10, TimeUnit.SECONDS);
+        assertSame(first, waiting.get(10, TimeUnit.SECONDS));
+        assertEquals(2, first.references);
+        SessionRegistry.release(first);
+        SessionRegistry.release(first);
+    }
+
+    @Test
+    public void testFailedOpenIsNotRegistered() throws Exception {
+        CassandraClientURI failingURI = mockedURI("jdbc:cassandra://host7:9042/ks?sharesession=true", null);
+        doThrow(new IllegalStateException("unreachable")).when(failingURI).createCqlSession(any());
+        int openSessions = SessionRegistry.getOpenSessionCount();
+        try {
+            SessionRegistry.acquire(failingURI);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals("unreachable", ex.getMessage());
+        }
+        assertEquals(openSessions, SessionRegistry.getOpenSessionCount());
+        SharedSession sharedSession = SessionRegistry.acquire(mockedURI("jdbc:cassandra://host7:9042/ks?sharesession=true", null));
+        assertEquals(1, sharedSession.references);
+        SessionRegistry.release(sharedSession);
+    }
+}
@@ -0,0 +1,218 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SlowQueryLogTest {
+
+    private static class RecordingHandler extends Handler {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(0);
+
+        @Override
+        public void publish(LogRecord record) {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        List<String> messages() {
+            return records.stream().map(LogRecord::getMessage).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testAsyncHandlerDropsTheOldestRecords() throws Exception {
+        RecordingHandler target = new RecordingHandler();
+        target.release = new CountDownLatch(1);
+        AsyncLogHandler handler = new AsyncLogHandler(4, target);
+        try {
+            handler.publish(new LogRecord(Level.INFO, "first"));
+            assertTrue(target.blocked.await(5, TimeUnit.SECONDS));
+            // the writer waits in the target, the next records stay in the buffer
+            for (int i = 0; i < 10; i++) {
+                handler.publish(new LogRecord(Level.INFO, "record " + i));
+            }
+            target.release.countDown();
+            handler.flush();
+            assertEquals(List.of("first", "6 log records were dropped, the log buffer was full", "record 6", "record 7", "record 8", "record 9"),
+                    target.messages());
+        } finally {
+            handler.close();
+        }
+        handler.publish(new LogRecord(Level.INFO, "closed"));
+        assertEquals(6, target.records.size());
+    }
+
+    @Test
+    public void testAsyncHandlerKeepsTheSourceAndSurvivesFailures() throws Exception {
+        RecordingHandler target = new RecordingHandler() {
+            @Override
+            public void flush() {
+                throw new IllegalStateException("flush failed");
+            }
+        };
+        AsyncLogHandler handler = new AsyncLogHandler(4, target);
+        handler.setErrorManager(new ErrorManager() {
+            @Override
+            public synchronized void error(String msg, Exception ex, int code) {
+            }
+        });
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        try {
+            logger.warning("first");
+            handler.flush();
+            logger.warning("second");
+            handler.flush();
+            assertEquals(List.of("first", "second"), target.messages());
+            LogRecord record = target.records.get(0);
+            assertEquals(SlowQueryLogTest.class.getName(), record.getSourceClassName());
+            assertEquals("testAsyncHandlerKeepsTheSourceAndSurvivesFailures", record.getSourceMethodName());
+        } finally {
+            logger.removeHandler(handler);
+            handler.close();
+        }
+    }
+
+    @Test
+    public void testDriverLogIsAsynchronousAndLevelGated() {
+        assertEquals(Level.WARNING, JdbcDriver.LOGGER.getLevel());
+        assertFalse(JdbcDriver.LOGGER.getUseParentHandlers());
+        assertTrue(JdbcDriver.LOGGER.getHandlers()[0] instanceof AsyncLogHandler);
+        assertArrayEquals(JdbcDriver.LOGGER.getHandlers(), SlowQueryLog.LOGGER.getHandlers());
+        JdbcDriver.LOGGER.info(() -> {
+            throw new AssertionError("message built for a disabled level");
+        });
+    }
+
+    @Test
+    public void testSlowQueriesAreLoggedWithoutValues() throws Exception {
+        RecordingHandler recorder = new RecordingHandler();
+        SlowQueryLog.LOGGER.addHandler(recorder);
+        try (StubCassandraServer server = new StubCassandraServer()) {
+            server.addRows("SELECT * FROM bench.slow WHERE bucket = 7", 30, DataTypes.INT, DataTypes.TEXT);
+            server.addPrepared("INSERT INTO bench.slow (bucket, value) VALUES (?, ?)", DataTypes.INT, DataTypes.TEXT);
+
+            try (CassandraConnection connection = (CassandraConnection) new JdbcDriver().connect(server.getUrl("bench") + "?slowquerymillis=200&sharesession=false", new Properties())) {
+                assertEquals(200, connection.getClientURI().getSlowQueryMillis());
+                try (Statement statement = connection.createStatement()) {
+                    statement.setFetchSize(10);
+                    // read fast, not logged
+                    try (ResultSet rs = statement.executeQuery("SELECT * FROM bench.slow WHERE bucket = 7")) {
+                        while (rs.next()) {
+                            assertNotNull(rs.getString(2));
+                        }
+                    }
+                    try (ResultSet rs = statement.executeQuery("SELECT * FROM bench.slow WHERE bucket = 7")) {
+                        while (rs.next()) {
+                            Thread.sleep(10);
+                        }
+                    }
+                }
+                try (PreparedStatement statement = connection.prepareStatement("INSERT INTO bench.slow (bucket, value) VALUES (?, ?)")) {
+                    statement.setInt(1, 7);
+                    statement.setString(2, "secret value");
+                    statement.executeUpdate();
+                }
+                assertEquals(", values: [c0 int (4 bytes), c1 text null]", SlowQueryLog.valuesOf(connection.getSession()
+                        .prepare("INSERT INTO bench.slow (bucket, value) VALUES (?, ?)").bind(7, null)));
+            }
+            assertEquals(1, recorder.records.size());
+            LogRecord record = recorder.records.get(0);
+            assertEquals(Level.WARNING, record.getLevel());
+            String message = record.getMessage();
+            assertTrue(message, message.startsWith("Slow query: "));
+            assertTrue(message, message.contains(", pages 3, rows 30, consistency default, coordinator "));
+            assertTrue(message, message.endsWith("cql: SELECT * FROM bench.slow WHERE bucket = ?"));
+        } finally {
+            SlowQueryLog.LOGGER.removeHandler(recorder);
+        }
+    }
+
+    @Test
+    public void testSlowExecutionIsLoggedWithoutReadingTheResult() throws Exception {
+        RecordingHandler recorder = new RecordingHandler();
+        SlowQueryLog.LOGGER.addHandler(recorder);
+        try (StubCassandraServer server = new StubCassandraServer()) {
+            server.addRows("SELECT * FROM bench.slow WHERE bucket = 8", 30, DataTypes.INT, DataTypes.TEXT);
+            server.addDelay("SELECT * FROM bench.slow WHERE bucket = 8", 300);
+            try (CassandraConnection connection = (CassandraConnection) new JdbcDriver().connect(server.getUrl("bench") + "?slowquerymillis=200", new Properties())) {
+                Statement statement = connection.createStatement();
+                statement.setFetchSize(10);
+                // the result set is read partly and never closed
+                ResultSet rs = statement.executeQuery("SELECT * FROM bench.slow WHERE bucket = 8");
+                assertTrue(rs.next());
+                assertEquals(1, recorder.records.size());
+                String message = recorder.records.get(0).getMessage();
+                assertTrue(message, message.contains(", pages 1, rows 0, "));
+                assertTrue(message, message.endsWith("cql: SELECT * FROM bench.slow WHERE bucket = ?"));
+                while (rs.next()) {
+                    assertNotNull(rs.getString(2));
+                }
+            }
+            // not logged again when the result is read to the end
+            assertEquals(1, recorder.records.size());
+        } finally {
+            SlowQueryLog.LOGGER.removeHandler(recorder);
+        }
+    }
+
+    @Test
+    public void testFailedSlowQueriesAreLogged() throws Exception {
+        RecordingHandler recorder = new RecordingHandler();
+        SlowQueryLog.LOGGER.addHandler(recorder);
+        try {
+            StatementExecution execution = new StatementExecution(SimpleStatement.newInstance("SELECT * FROM t WHERE k = 'secret'"), null, 1);
+            Thread.sleep(2);
+            execution.executed(null, new CompletionException(new DriverTimeoutException("Query timed out after PT2S")));
+            execution.finished();
+            assertEquals(1, recorder.records.size());
+            String message = recorder.records.get(0).getMessage();
+            assertTrue(message, message.contains(", failed with " + DriverTimeoutException.class.getName() + ", pages 0, rows 0"));
+            assertTrue(message, message.endsWith("cql: SELECT * FROM t WHERE k = ?"));
+        } finally {
+            SlowQueryLog.LOGGER.removeHandler(recorder);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class StatementMetricsTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = LatencyHistogram.index(value);
+            long highest = LatencyHistogram.highestValue(index);
+            if (value < 1L << 40) {
+                assertTrue(value + " above its bucket", highest >= value);
+                assertTrue(value + " far below its bucket", highest - value <= value / 16);
+                assertEquals(index, LatencyHistogram.index(highest));
+            } else {
+                assertEquals(LatencyHistogram.index((1L << 40) - 1), index);
+            }
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_500, histogram.getMean());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 / 16.0);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 / 16.0);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals("SELECT * FROM ks.users WHERE id = ? AND name = ?",
+                StatementMetrics.fingerprint("SELECT *\n  FROM ks.users WHERE id = 42 AND name = 'O''Brien' ;"));
+        assertEquals("INSERT INTO ks.t2 (\"Id\", data, score) VALUES (?, ?, ?)",
+                StatementMetrics.fingerprint("INSERT INTO ks.t2 (\"Id\", data, score) VALUES (123e4567-e89b-12d3-a456-426614174000, 0xCAFE, -1.5e3)"));
+        assertEquals("SELECT v FROM t WHERE k IN (?, ?) LIMIT ?", StatementMetrics.fingerprint("SELECT v FROM t WHERE k IN (1, 2) LIMIT 10"));
+        assertEquals("INSERT INTO t (a, b, c) VALUES (?, ?, ?)",
+                StatementMetrics.fingerprint("INSERT INTO t (a, b, c) VALUES ($$secret-password$$, true, $$multi\n 'line' $$)"));
+        assertEquals("UPDATE t SET flag = ? WHERE k = ? IF enabled = ?", StatementMetrics.fingerprint("UPDATE t SET flag = FALSE WHERE k = 1 IF enabled = True"));
+        assertEquals(StatementMetrics.OTHER, StatementMetrics.fingerprint(null));
+    }
+
+    @Test
+    public void testMetricsAreRecordedAndPublished() throws Exception {
+        try (StubCassandraServer server = new StubCassandraServer()) {
+            server.addRows("SELECT * FROM bench.metrics WHERE bucket = 1", 250, DataTypes.INT, DataTypes.TEXT);
+            server.addRows("SELECT * FROM bench.metrics WHERE bucket = 2", 10, DataTypes.INT, DataTypes.TEXT);
+            server.addPrepared("INSERT INTO bench.metrics (bucket, value) VALUES (?, ?)", DataTypes.INT, DataTypes.TEXT);
+
+            try (CassandraConnection plain = (CassandraConnection) new JdbcDriver().connect(server.getUrl("bench") + "?sharesession=false", new Properties())) {
+                assertNull(plain.getStatementMetrics());
+            }
+
+            CassandraConnection connection = (CassandraConnection) new JdbcDriver().connect(server.getUrl("bench") + "?metrics=true&sharesession=false", new Properties());
+            ObjectName name = connection.getMetrics().getObjectName();
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(mBeanServer.isRegistered(name));
+
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(100);
+                for (int bucket = 1; bucket <= 2; bucket++) {
+                    try (ResultSet rs = statement.executeQuery("SELECT * FROM bench.metrics WHERE bucket = " + bucket)) {
+                        while (rs.next()) {
+                            assertNotNull(rs.getString(2));
+                        }
+                    }
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO bench.metrics (bucket, value) VALUES (?, ?)")) {
+                for (int i = 0; i < 5; i++) {
+                    statement.setInt(1, i);
+                    statement.setString(2, "value");
+                    statement.executeUpdate();
+                }
+            }
+
+            List<StatementStatistics> statements = connection.getStatementMetrics().getStatements();
+            assertEquals(2, statements.size());
+            // the most executed first
+            assertEquals(5, statements.get(0).getExecutions());
+            assertEquals(0, statements.get(0).getRows());
+            StatementStatistics select = statements.get(1);
+            assertEquals("SELECT * FROM bench.metrics WHERE bucket = ?", select.getFingerprint());
+            assertEquals(2, select.getExecutions());
+            assertEquals(260, select.getRows());
+            assertEquals(4, select.getPages());
+            assertEquals(2, select.getFirstRow().getCount());
+            assertEquals(2, select.getPageFetch().getCount());
+            assertEquals(2, select.getConsume().getCount());
+            assertTrue(select.getConsume().getMax() >= select.getExecute().getP50());
+            assertEquals(260, connection.getStatementMetrics().getRows());
+
+            CompositeData[] published = (CompositeData[]) mBeanServer.getAttribute(name, "Statements");
+            assertEquals(2, published.length);
+            assertEquals(2L, published[1].get("executions"));
+            assertEquals(2L, ((CompositeData) published[1].get("execute")).get("count"));
+            assertEquals(7L, mBeanServer.getAttribute(name, "Executions"));
+
+            mBeanServer.invoke(name, "reset", null, null);
+            assertTrue(connection.getStatementMetrics().getStatements().isEmpty());
+            connection.close();
+            assertFalse(mBeanServer.isRegistered(name));
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.DefaultProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import com.datastax.oss.driver.internal.core.protocol.ByteBufPrimitiveCodec;
+import com.datastax.oss.protocol.internal.Compressor;
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.FrameCodec;
+import com.datastax.oss.protocol.internal.Message;
+import com.datastax.oss.protocol.internal.ProtocolConstants;
+import com.datastax.oss.protocol.internal.request.Batch;
+import com.datastax.oss.protocol.internal.request.Execute;
+import com.datastax.oss.protocol.internal.request.Options;
+import com.datastax.oss.protocol.internal.request.Prepare;
+import com.datastax.oss.protocol.internal.request.Query;
+import com.datastax.oss.protocol.internal.request.Register;
+import com.datastax.oss.protocol.internal.request.Startup;
+import com.datastax.oss.protocol.internal.request.query.QueryOptions;
+import com.datastax.oss.protocol.internal.response.Error;
+import com.datastax.oss.protocol.internal.response.Ready;
+import com.datastax.oss.protocol.internal.response.Supported;
+import com.datastax.oss.protocol.internal.response.error.Unprepared;
+import com.datastax.oss.protocol.internal.response.result.ColumnSpec;
+import com.datastax.oss.protocol.internal.response.result.DefaultRows;
+import com.datastax.oss.protocol.internal.response.result.Prepared;
+import com.datastax.oss.protocol.internal.response.result.RawType;
+import com.datastax.oss.protocol.internal.response.result.RowsMetadata;
+import com.datastax.oss.protocol.internal.response.result.SetKeyspace;
+import com.datastax.oss.protocol.internal.response.result.Void;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ *
+ * In-process server speaking the CQL native protocol v4, so the driver can be tested through its real network path without
+ * a cluster. The driver first tries v5 and is answered with the protocol error Cassandra 3 sends, so it falls back to v4.
+ * It answers STARTUP, OPTIONS, REGISTER, QUERY, PREPARE, EXECUTE and BATCH: system.local returns one node in datacenter1,
+ * the queries registered with addRows() return synthetic rows in pages of the requested page size, other selects return
+ * no rows and the other statements are applied.
+ */
+class StubCassandraServer implements AutoCloseable {
+
+    private static final int PROTOCOL_VERSION = DefaultProtocolVersion.V4.getCode();
+    private static final String LOCAL_TABLE = "system.local";
+
+    private final EventLoopGroup group = new NioEventLoopGroup(2);
+    private final FrameCodec<ByteBuf> codec = FrameCodec.defaultServer(new ByteBufPrimitiveCodec(ByteBufAllocator.DEFAULT), Compressor.none());
+    private final Map<String, SyntheticRows> results = new ConcurrentHashMap<>();
+    private final Map<String, List<DataType>> variables = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, String> prepared = new ConcurrentHashMap<>();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final SyntheticRows localRow;
+    private final Channel channel;
+
+    final AtomicInteger connections = new AtomicInteger();
+    final AtomicInteger queries = new AtomicInteger();
+    final AtomicInteger prepares = new AtomicInteger();
+    final AtomicInteger executions = new AtomicInteger();
+    final AtomicInteger batches = new AtomicInteger();
+    final AtomicInteger batchStatements = new AtomicInteger();
+    final AtomicInteger pages = new AtomicInteger();
+
+    StubCassandraServer() throws InterruptedException {
+        final InetAddress address = InetAddress.getLoopbackAddress();
+        final Map<String, Object> local = new LinkedHashMap<>();
+        local.put("key", "local");
+        local.put("bootstrapped", "COMPLETED");
+        local.put("broadcast_address", address);
+        local.put("cluster_name", "Stub Cluster");
+        local.put("cql_version", "3.4.5");
+        local.put("data_center", "datacenter1");
+        local.put("host_id", UUID.nameUUIDFromBytes("stub".getBytes(StandardCharsets.UTF_8)));
+        local.put("listen_address", address);
+        local.put("native_protocol_version", String.valueOf(PROTOCOL_VERSION));
+        local.put("partitioner", "org.apache.cassandra.dht.Murmur3Partitioner");
+        local.put("rack", "rack1");
+        local.put("release_version", "4.0.0");
+        local.put("rpc_address", address);
+        local.put("schema_version", UUID.nameUUIDFromBytes("schema".getBytes(StandardCharsets.UTF_8)));
+        local.put("tokens", Collections.singleton("0"));
+        localRow = SyntheticRows.of(local);
+
+        channel = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        connections.incrementAndGet();
+                        // the frame length is the int after version, flags, stream id and opcode
+                        ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(256 * 1024 * 1024, 5, 4, 0, 0), new RequestHandler());
+                    }
+                })
+                .bind(new InetSocketAddress(address, 0))
+                .sync()
+                .channel();
+    }
+
+    int getPort() {
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    String getUrl(String keyspace) {
+        return "jdbc:cassandra://127.0.0.1:" + getPort() + "/" + keyspace;
+    }
+
+    /**
+     * Answers the query with rowCount rows of the given column types, named c0, c1 ... The values are derived from the row
+     * number; blobs have blobSize bytes.
+     */
+    void addRows(String query, int rowCount, int blobSize, DataType... types) {
+        results.put(query, new SyntheticRows(rowCount, blobSize, types));
+    }
+
+    void addRows(String query, int rowCount, DataType... types) {
+        addRows(query, rowCount, 16, types);
+    }
+
+    void addPrepared(String query, DataType... variableTypes) {
+        variables.put(query, Arrays.asList(variableTypes));
+    }
+
+    /**
+     * Answers the query, not prepared, after the delay.
+     */
+    void addDelay(String query, long millis) {
+        delays.put(query, millis);
+    }
+
+    @Override
+    public void close() {
+        channel.close().syncUninterruptibly();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private final class RequestHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf buffer) {
+            final int version = buffer.getByte(buffer.readerIndex()) & 0x7F;
+            final int streamId = buffer.getShort(buffer.readerIndex() + 2);
+            final Message response;
+            long delay = 0;
+            if (version != PROTOCOL_VERSION) {
+                response = new Error(ProtocolConstants.ErrorCode.PROTOCOL_ERROR,
+                        "Invalid or unsupported protocol version (" + version + "); supported versions are (3/v3, 4/v4)");
+            } else {
+                final Message request = codec.decode(buffer).message;
+                if (request instanceof Query) {
+                    delay = delays.getOrDefault(((Query) request).query.trim(), 0L);
+                }
+                response = respond(request);
+            }
+            final Frame frame = Frame.forResponse(PROTOCOL_VERSION, streamId, null, Frame.NO_PAYLOAD, Collections.emptyList(), response);
+            if (delay > 0) {
+                ctx.executor().schedule(() -> ctx.writeAndFlush(codec.encode(frame)), delay, TimeUnit.MILLISECONDS);
+            } else {
+                ctx.writeAndFlush(codec.encode(frame));
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+
+    private Message respond(Message request) {
+        if (request instanceof Startup || request instanceof Register) {
+            return new Ready();
+        } else if (request instanceof Options) {
+            return new Supported(Collections.singletonMap("CQL_VERSION", Collections.singletonList("3.4.5")));
+        } else if (request instanceof Query) {
+            queries.incrementAndGet();
+            return query(((Query) request).query.trim(), ((Query) request).options);
+        } else if (request instanceof Prepare) {
+            prepares.incrementAndGet();
+            final String query = ((Prepare) request).cqlQuery.trim();
+            final byte[] id = md5(query);
+            prepared.put(ByteBuffer.wrap(id), query);
+            final SyntheticRows rows = results.get(query);
+            final List<DataType> types = variables.getOrDefault(query, Collections.emptyList());
+            return new Prepared(id, null, new RowsMetadata(specs(types), null, new int[0], null),
+                    new RowsMetadata(rows == null ? Collections.emptyList() : rows.columns, null, null, null));
+        } else if (request instanceof Execute) {
+            executions.incrementAndGet();
+            final String query = prepared.get(ByteBuffer.wrap(((Execute) request).queryId));
+            if (query == null) {
+                return new Unprepared("Prepared statement not found", ((Execute) request).queryId);
+            }
+            return query(query, ((Execute) request).options);
+        } else if (request instanceof Batch) {
+            batches.incrementAndGet();
+            batchStatements.addAndGet(((Batch) request).queriesOrIds.size());
+            return Void.INSTANCE;
+        }
+        return new Error(ProtocolConstants.ErrorCode.PROTOCOL_ERROR, "Unsupported request " + request);
+    }
+
+    private Message query(String query, QueryOptions options) {
+        final String lowerCase = query.toLowerCase();
+        if (lowerCase.startsWith("use ")) {
+            return new SetKeyspace(query.substring(4).replace("\"", "").trim());
+        }
+        final SyntheticRows rows = results.get(query);
+        if (rows != null) {
+            pages.incrementAndGet();
+            return rows.page(options);
+        }
+        if (lowerCase.contains(LOCAL_TABLE)) {
+            return localRow.page(options);
+        }
+        if (lowerCase.startsWith("select ")) {
+            return new DefaultRows(new RowsMetadata(Collections.emptyList(), null, null, null), new ArrayDeque<>());
+        }
+        return Void.INSTANCE;
+    }
+
+    private static List<ColumnSpec> specs(List<DataType> types) {
+        final List<ColumnSpec> specs = new ArrayList<>();
+        for (DataType type : types) {
+            specs.add(new ColumnSpec("stub", "stub", "c" + specs.size(), specs.size(), rawType(type)));
+        }
+        return specs;
+    }
+
+    private static RawType rawType(DataType type) {
+        if (type.equals(DataTypes.setOf(DataTypes.TEXT))) {
+            return new RawType.RawSet(RawType.PRIMITIVES.get(ProtocolConstants.DataType.VARCHAR));
+        }
+        return RawType.PRIMITIVES.get(type.getProtocolCode());
+    }
+
+    private static byte[] md5(String query) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(query.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static ByteBuffer encode(DataType type, Object value) {
+        return CodecRegistry.DEFAULT.codecFor(type).encode(value, DefaultProtocolVersion.V4);
+    }
+
+    /**
+     * Rows generated on demand, so large results take no memory between pages. The paging state is the next row number.
+     */
+    private static final class SyntheticRows {
+
+        private final int rowCount;
+        private final DataType[] types;
+        private final List<ColumnSpec> columns;
+        private final ByteBuffer blob;
+        private final List<ByteBuffer> fixedRow;
+
+        private SyntheticRows(int rowCount, int blobSize, DataType[] types) {
+            this.rowCount = rowCount;
+            this.types = types;
+            this.columns = specs(Arrays.asList(types));
+            this.blob = ByteBuffer.allocate(blobSize);
+            this.fixedRow = null;
+        }
+
+        private SyntheticRows(List<ColumnSpec> columns, List<ByteBuffer> fixedRow) {
+            this.rowCount = 1;
+            this.types = null;
+            this.columns = columns;
+            this.blob = null;
+            this.fixedRow = fixedRow;
+        }
+
+        static SyntheticRows of(Map<String, Object> row) {
+            final List<ColumnSpec> columns = new ArrayList<>();
+            final List<ByteBuffer> values = new ArrayList<>();
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                final Object value = entry.getValue();
+                final DataType type = value instanceof InetAddress ? DataTypes.INET : value instanceof UUID ? DataTypes.UUID
+                        : value instanceof String ? DataTypes.TEXT : DataTypes.setOf(DataTypes.TEXT);
+                columns.add(new ColumnSpec("system", "local", entry.getKey(), columns.size(), rawType(type)));
+                values.add(encode(type, value));
+            }
+            return new SyntheticRows(columns, values);
+        }
+
+        DefaultRows page(QueryOptions options) {
+            final int first = options.pagingState == null ? 0 : options.pagingState.getInt(options.pagingState.position());
+            final int last = options.pageSize > 0 ? Math.min(rowCount, first + options.pageSize) : rowCount;
+            final Queue<List<ByteBuffer>> data = new ArrayDeque<>(last - first);
+            for (int i = first; i < last; i++) {
+                data.add(fixedRow != null ? fixedRow : row(i));
+            }
+            final ByteBuffer pagingState = last < rowCount ? ByteBuffer.allocate(4).putInt(0, last) : null;
+            return new DefaultRows(new RowsMetadata(columns, pagingState, null, null), data);
+        }
+
+        private List<ByteBuffer> row(int i) {
+            final List<ByteBuffer> row = new ArrayList<>(types.length);
+            for (DataType type : types) {
+                row.add(encode(type, value(type, i)));
+            }
+            return row;
+        }
+
+        private Object value(DataType type, int i) {
+            switch (type.getProtocolCode()) {
+                case ProtocolConstants.DataType.INT:
+                    return i;
+                case ProtocolConstants.DataType.BIGINT:
+                    return (long) i;
+                case ProtocolConstants.DataType.DOUBLE:
+                    return i * 0.5;
+                case ProtocolConstants.DataType.BLOB:
+                    return blob.duplicate();
+                case ProtocolConstants.DataType.UUID:
+                    return new UUID(0, i);
+                case ProtocolConstants.DataType.TIMESTAMP:
+                    return Instant.ofEpochMilli(i * 1000L);
+                default:
+                    return "value " + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class VirtualThreadLoadTest {
+
+    private static final int QUERIES = 10_000;
+    private static final long LATENCY_MILLIS = 20;
+
+    /**
+     * One virtual thread per query on Java 21 or later, a pool of platform threads on older versions.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newFixedThreadPool(200);
+        }
+    }
+
+    private static boolean hasVirtualThreads() {
+        try {
+            Thread.class.getMethod("isVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        ScheduledExecutorService server = Executors.newScheduledThreadPool(2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AsyncResultSet page = mock(AsyncResultSet.class);
+        Row row = mock(Row.class);
+        when(page.currentPage()).thenReturn(Collections.singletonList(row));
+        ColumnDefinitions columnDefinitions = CassandraResultSetTest.columns("id");
+        when(page.getColumnDefinitions()).thenReturn(columnDefinitions);
+        CqlSession session = mock(CqlSession.class);
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<AsyncResultSet> response = new CompletableFuture<>();
+            server.schedule(() -> {
+                inFlight.decrementAndGet();
+                response.complete(page);
+            }, LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            return response;
+        }).when(session).executeAsync(any(Statement.class));
+        CassandraConnection connection = CassandraResultSetTest.mockConnection(session, "jdbc:cassandra://localhost");
+
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<Boolean>> results = new ArrayList<>(QUERIES);
+            for (int i = 0; i < QUERIES; i++) {
+                results.add(executor.submit(() -> {
+                    CassandraStatement statement = new CassandraStatement(connection);
+                    ResultSet rs = statement.executeQuery("SELECT * FROM t");
+                    boolean read = rs.next() && !rs.next();
+                    statement.close();
+                    return read;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+            server.shutdown();
+        }
+        // Blocked callers are parked, not pinned: far more queries are in flight than there are carrier threads.
+        if (hasVirtualThreads()) {
+            assertTrue("Max queries in flight " + maxInFlight.get(), maxInFlight.get() > Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+}
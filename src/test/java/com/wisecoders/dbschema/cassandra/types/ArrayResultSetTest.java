@@ -0,0 +1,52 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ArrayResultSetTest {
+
+    @Test
+    public void testAddRows() throws Exception {
+        ArrayResultSet rs = new ArrayResultSet("NAME", "POSITION");
+        Object[] row = new Object[2];
+        for (int i = 0; i < 100000; i++) {
+            row[0] = "column" + i;
+            row[1] = i;
+            rs.addRow(row);
+        }
+        assertEquals(100000, rs.getRowCount());
+        assertTrue(rs.next());
+        assertEquals("column0", rs.getString(1));
+        assertEquals(0, rs.getObject(2));
+        assertTrue(rs.next());
+        assertEquals("column1", rs.getString("NAME"));
+    }
+
+    @Test
+    public void testAddResultSet() throws Exception {
+        ArrayResultSet rs = new ArrayResultSet(new Object[][]{{"a", 1}}, new String[]{"NAME", "POSITION"});
+        rs.addResultSet(new ArrayResultSet(new Object[][]{{"b", 2}, {"c", 3}}, new String[]{"NAME", "POSITION"}));
+        rs.addResultSet(new ArrayResultSet());
+        assertEquals(3, rs.getRowCount());
+        int rows = 0;
+        while (rs.next()) {
+            rows++;
+            assertEquals(rows, rs.getObject(2));
+        }
+        assertEquals(3, rows);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        ArrayResultSet rs = new ArrayResultSet("NAME");
+        assertEquals(0, rs.getRowCount());
+        assertFalse(rs.next());
+    }
+}
@@ -0,0 +1,88 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class BlobImplTest {
+
+    private static BlobImpl slicedBlob() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{9, 9, 1, 2, 3, 4, 5, 9});
+        buffer.position(2).limit(7);
+        return new BlobImpl(buffer);
+    }
+
+    @Test
+    public void testSlicedBuffer() throws Exception {
+        BlobImpl blob = slicedBlob();
+        assertEquals(5, blob.length());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, blob.getBytes(1, 5));
+        assertArrayEquals(new byte[]{2, 3}, blob.getBytes(2, 2));
+        assertArrayEquals(new byte[]{4, 5}, blob.getBytes(4, 100));
+        ByteBuffer raw = blob.getByteBuffer();
+        assertEquals(5, raw.remaining());
+        assertEquals(1, raw.get(0));
+        assertTrue(raw.isReadOnly());
+    }
+
+    @Test
+    public void testDirectBuffer() throws Exception {
+        ByteBuffer direct = ByteBuffer.allocateDirect(3);
+        direct.put(new byte[]{7, 8, 9}).flip();
+        BlobImpl blob = new BlobImpl(direct);
+        assertArrayEquals(new byte[]{7, 8, 9}, blob.getBytes(1, 3));
+    }
+
+    @Test
+    public void testBinaryStream() throws Exception {
+        BlobImpl blob = slicedBlob();
+        try (InputStream in = blob.getBinaryStream(2, 3)) {
+            assertEquals(2, in.read());
+            assertEquals(3, in.read());
+            assertEquals(4, in.read());
+            assertEquals(-1, in.read());
+        }
+        try (InputStream in = blob.getBinaryStream()) {
+            byte[] bytes = new byte[8];
+            assertEquals(5, in.available());
+            assertEquals(3, in.read(bytes, 0, 3));
+            assertArrayEquals(new byte[]{1, 2, 3}, Arrays.copyOf(bytes, 3));
+            assertEquals(2, in.skip(100));
+            assertEquals(-1, in.read(bytes, 0, 8));
+        }
+        // the streams do not change the blob
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, blob.getBytes(1, 5));
+    }
+
+    @Test
+    public void testPosition() throws Exception {
+        BlobImpl blob = slicedBlob();
+        assertEquals(3, blob.position(new byte[]{3, 4}, 1));
+        assertEquals(-1, blob.position(new byte[]{3, 4}, 4));
+        assertEquals(-1, blob.position(new byte[]{9}, 1));
+        assertEquals(4, blob.position(new BlobImpl(new byte[]{4, 5}), 1));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testInvalidPosition() throws Exception {
+        slicedBlob().getBytes(0, 1);
+    }
+
+    @Test(expected = SQLException.class)
+    public void testFreed() throws Exception {
+        BlobImpl blob = slicedBlob();
+        blob.free();
+        blob.length();
+    }
+}